@@ -0,0 +1,241 @@
+package com.example.worldgen; // Replace with your desired package
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// Chunk and lighting pools that resize themselves within [minThreadsPerStage, maxThreads] from observed queue wait,
+// process CPU load and throughput. Every interval at most one thread is added, removed or moved between the two stages.
+public class AdaptiveExecutor {
+
+    private static final long DEFAULT_TARGET_WAIT_MILLIS = 20;
+    private static final long DEFAULT_INTERVAL_MILLIS = 1000;
+    private static final double DEFAULT_CPU_CEILING = 0.9;
+    // A stage whose wait is below this fraction of the target is considered over-provisioned
+    private static final double IDLE_WAIT_FRACTION = 0.25;
+
+    private final Stage chunkStage;
+    private final Stage lightingStage;
+    private final int minThreadsPerStage;
+    private final int maxThreads;
+    private final long targetWaitNanos;
+    private final double cpuCeiling;
+    private final ScheduledExecutorService tuner;
+    private final AtomicInteger decisionCount = new AtomicInteger();
+    private volatile double cpuLoad;
+    private volatile String lastDecision = "none";
+
+    public AdaptiveExecutor(final int minThreadsPerStage, final int maxThreads) {
+        this(minThreadsPerStage, maxThreads, DEFAULT_TARGET_WAIT_MILLIS, DEFAULT_CPU_CEILING, DEFAULT_INTERVAL_MILLIS);
+    }
+
+    public AdaptiveExecutor(final int minThreadsPerStage, final int maxThreads, final long targetWaitMillis,
+                            final double cpuCeiling, final long intervalMillis) {
+        if (minThreadsPerStage < 1 || maxThreads < 2 * minThreadsPerStage) {
+            throw new IllegalArgumentException("need 1 <= minThreadsPerStage and 2 * minThreadsPerStage <= maxThreads");
+        }
+        this.minThreadsPerStage = minThreadsPerStage;
+        this.maxThreads = maxThreads;
+        this.targetWaitNanos = TimeUnit.MILLISECONDS.toNanos(targetWaitMillis);
+        this.cpuCeiling = cpuCeiling;
+
+        final int initial = Math.max(minThreadsPerStage, Math.min(maxThreads / 2, Runtime.getRuntime().availableProcessors() / 2));
+        chunkStage = new Stage("chunks", initial);
+        lightingStage = new Stage("lighting", initial);
+
+        tuner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "worldgen-tuner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tuner.scheduleAtFixedRate(this::tune, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public Stage getChunkStage() {
+        return chunkStage;
+    }
+
+    public Stage getLightingStage() {
+        return lightingStage;
+    }
+
+    public double getCpuLoad() {
+        return cpuLoad;
+    }
+
+    public String getLastDecision() {
+        return lastDecision;
+    }
+
+    public int getDecisionCount() {
+        return decisionCount.get();
+    }
+
+    public void shutdown() {
+        tuner.shutdown();
+        chunkStage.pool.shutdown();
+        lightingStage.pool.shutdown();
+    }
+
+    private void tune() {
+        try {
+            chunkStage.sample();
+            lightingStage.sample();
+            cpuLoad = readCpuLoad();
+            decide();
+        } catch (final RuntimeException e) {
+            e.printStackTrace(); // Keep tuning; a thrown exception would cancel the schedule
+        }
+    }
+
+    private void decide() {
+        final Stage slower = chunkStage.waitNanos >= lightingStage.waitNanos ? chunkStage : lightingStage;
+        final Stage faster = slower == chunkStage ? lightingStage : chunkStage;
+        final int total = chunkStage.threads + lightingStage.threads;
+        final long idleWait = (long) (targetWaitNanos * IDLE_WAIT_FRACTION);
+
+        if (cpuLoad >= cpuCeiling) {
+            // Saturated: more threads only add contention, so give one back from the stage that needs it least
+            if (faster.threads > minThreadsPerStage) {
+                record(faster.resize(faster.threads - 1), "shrink " + faster.name + " (cpu " + percent(cpuLoad) + ")");
+            }
+            return;
+        }
+
+        if (slower.waitNanos > targetWaitNanos) {
+            if (total < maxThreads) {
+                record(slower.resize(slower.threads + 1), "grow " + slower.name + " (wait " + millis(slower.waitNanos) + ")");
+            } else if (faster.waitNanos < idleWait && faster.threads > minThreadsPerStage) {
+                faster.resize(faster.threads - 1);
+                record(slower.resize(slower.threads + 1), "move " + faster.name + " -> " + slower.name);
+            }
+            return;
+        }
+
+        // Both stages are keeping up: release a thread from a stage doing less than one task per thread per second
+        for (final Stage stage : new Stage[]{chunkStage, lightingStage}) {
+            if (stage.waitNanos < idleWait && stage.queued == 0 && stage.threads > minThreadsPerStage
+                    && stage.completedPerSecond < stage.threads) {
+                record(stage.resize(stage.threads - 1), "shrink " + stage.name + " (idle)");
+                return;
+            }
+        }
+    }
+
+    private void record(final boolean changed, final String decision) {
+        if (!changed) return;
+        lastDecision = decision + " -> chunks=" + chunkStage.threads + " lighting=" + lightingStage.threads;
+        decisionCount.incrementAndGet();
+    }
+
+    private static double readCpuLoad() {
+        final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            // This process only, so co-tenants on the node don't make the executor give up threads
+            final double load = ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuLoad();
+            if (load >= 0) return load;
+        }
+        // Fallback where the JVM doesn't expose process CPU usage: system-wide one-minute load average per core
+        final double average = os.getSystemLoadAverage();
+        return average < 0 ? 0 : Math.min(1.0, average / os.getAvailableProcessors());
+    }
+
+    private static String millis(final long nanos) {
+        return String.format("%.1fms", nanos / 1e6);
+    }
+
+    private static String percent(final double fraction) {
+        return String.format("%.0f%%", fraction * 100);
+    }
+
+    public final class Stage implements Executor {
+        private final String name;
+        private final ThreadPoolExecutor pool;
+        private final LongAdder waitSum = new LongAdder();
+        private final LongAdder started = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private volatile int threads;
+        // Last interval's averages, published for metrics
+        private volatile long waitNanos;
+        private volatile double completedPerSecond;
+        private volatile int queued;
+        private long lastSampleNanos = System.nanoTime();
+
+        private Stage(final String name, final int threads) {
+            this.name = name;
+            this.threads = threads;
+            final AtomicInteger threadIndex = new AtomicInteger();
+            pool = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "worldgen-" + name + "-" + threadIndex.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            final long enqueued = System.nanoTime();
+            pool.execute(() -> {
+                waitSum.add(System.nanoTime() - enqueued);
+                started.increment();
+                try {
+                    command.run();
+                } finally {
+                    completed.increment();
+                }
+            });
+        }
+
+        private void sample() {
+            final long now = System.nanoTime();
+            final long count = started.sumThenReset();
+            final long sum = waitSum.sumThenReset();
+            queued = pool.getQueue().size();
+            // Tasks still queued count too, otherwise a stalled stage would look idle
+            waitNanos = count > 0 ? sum / count : (queued > 0 ? targetWaitNanos + 1 : 0);
+            completedPerSecond = completed.sumThenReset() * 1e9 / Math.max(1, now - lastSampleNanos);
+            lastSampleNanos = now;
+        }
+
+        private boolean resize(final int newThreads) {
+            if (newThreads == threads) return false;
+            // Core may never exceed max, so the order depends on the direction
+            if (newThreads > threads) {
+                pool.setMaximumPoolSize(newThreads);
+                pool.setCorePoolSize(newThreads);
+            } else {
+                pool.setCorePoolSize(newThreads);
+                pool.setMaximumPoolSize(newThreads);
+            }
+            threads = newThreads;
+            return true;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public double getAverageWaitMillis() {
+            return waitNanos / 1e6;
+        }
+
+        public double getThroughput() {
+            return completedPerSecond;
+        }
+
+        public int getQueuedTasks() {
+            return queued;
+        }
+    }
+}
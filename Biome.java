@@ -1,33 +1,32 @@
 package com.example.worldgen; // Replace with your desired package
 
-import net.minestom.server.instance.block.Block;
+import java.util.List;
 
-enum Biome {
-    PLAINS(0, 5, Block.GRASS_BLOCK.stateId(), Block.DIRT.stateId()),
-    FOREST(1, 15, Block.GRASS_BLOCK.stateId(), Block.DIRT.stateId()),
-    DESERT(2, 3, Block.SAND.stateId(), Block.SANDSTONE.stateId());
+// One registry entry; biomes are defined by BiomeRegistry (code defaults or JSON config), not hard-coded here
+public class Biome {
 
     public final int id;
+    public final String name;
+    // Upper bound (exclusive) of the biome-noise band this biome covers
+    public final float maxNoise;
     public final int heightVariation;
     public final short topBlock;
     public final short underBlock;
+    // Names of the feature generators (FeatureGenerator.getName) that decorate this biome
+    public final List<String> features;
 
-    Biome(final int id, final int heightVariation, final short topBlock, final short underBlock) {
+    public Biome(final int id, final String name, final float maxNoise, final int heightVariation,
+                 final short topBlock, final short underBlock, final List<String> features) {
         this.id = id;
+        this.name = name;
+        this.maxNoise = maxNoise;
         this.heightVariation = heightVariation;
         this.topBlock = topBlock;
         this.underBlock = underBlock;
+        this.features = List.copyOf(features);
     }
 
-    private static final Biome[] byId = new Biome[values().length];
-
-    static {
-        for (final Biome biome : values()) {
-            byId[biome.id] = biome;
-        }
-    }
-
-    public static Biome getById(final int id) {
-        return byId[id];
+    public boolean hasFeature(final String feature) {
+        return features.contains(feature);
     }
-}
\ No newline at end of file
+}
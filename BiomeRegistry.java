@@ -0,0 +1,154 @@
+package com.example.worldgen; // Replace with your desired package
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import net.minestom.server.instance.block.Block;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Biomes ordered by noise band, resolved through a quantized lookup table so selection is one clamp and one
+// array read no matter how many biomes are configured. Bands are exact to within one table step (2 / RESOLUTION).
+//
+// Config format:
+// {"biomes": [{"name": "desert", "maxNoise": -0.3, "heightVariation": 3,
+//              "topBlock": "minecraft:sand", "underBlock": "minecraft:sandstone", "features": ["ores"]}, ...]}
+// maxNoise may be omitted on the last band, which then extends to the top of the noise range.
+public class BiomeRegistry {
+
+    // Feature names a biome may list; each is a generator FastWorldGenerator runs
+    public static final Set<String> FEATURES = Set.of(TreeGenerator.NAME, OreGenerator.NAME);
+    private static final int RESOLUTION = 1024;
+    private static final float HALF_RESOLUTION = RESOLUTION / 2f;
+
+    private final List<Biome> biomes;
+    private final Biome[] table = new Biome[RESOLUTION];
+    private final int maxHeightVariation;
+
+    public BiomeRegistry(final List<Biome> biomes) {
+        if (biomes.isEmpty()) throw new IllegalArgumentException("at least one biome is required");
+        final Set<String> names = new HashSet<>();
+        for (final Biome biome : biomes) {
+            if (!names.add(biome.name)) throw new IllegalArgumentException("duplicate biome name: " + biome.name);
+            if (Float.isNaN(biome.maxNoise)) throw new IllegalArgumentException("biome " + biome.name + ": maxNoise is NaN");
+            for (final String feature : biome.features) {
+                if (!FEATURES.contains(feature)) {
+                    throw new IllegalArgumentException("biome " + biome.name + ": unknown feature \"" + feature + "\", expected one of " + FEATURES);
+                }
+            }
+        }
+        final List<Biome> sorted = new ArrayList<>(biomes);
+        sorted.sort(Comparator.comparingDouble(biome -> biome.maxNoise));
+        for (int i = 1; i < sorted.size(); i++) {
+            // Also catches several biomes omitting maxNoise, which all extend to the top of the range
+            if (sorted.get(i).maxNoise == sorted.get(i - 1).maxNoise) {
+                throw new IllegalArgumentException("biomes " + sorted.get(i - 1).name + " and " + sorted.get(i).name
+                        + " share maxNoise " + sorted.get(i).maxNoise);
+            }
+        }
+        this.biomes = List.copyOf(sorted);
+
+        final boolean[] covered = new boolean[sorted.size()];
+        int band = 0;
+        for (int i = 0; i < RESOLUTION; i++) {
+            // Each slot takes the biome at the center of its noise interval
+            final float noise = (i + 0.5f) / HALF_RESOLUTION - 1f;
+            while (band < sorted.size() - 1 && noise >= sorted.get(band).maxNoise) band++;
+            table[i] = sorted.get(band);
+            covered[band] = true;
+        }
+        for (int i = 0; i < covered.length; i++) {
+            if (!covered[i]) {
+                throw new IllegalArgumentException("biome " + sorted.get(i).name + " covers no part of the noise range [-1, 1)"
+                        + " at a resolution of " + 2f / RESOLUTION);
+            }
+        }
+
+        int max = 0;
+        for (final Biome biome : sorted) {
+            max = Math.max(max, biome.heightVariation);
+        }
+        maxHeightVariation = max;
+    }
+
+    public static BiomeRegistry defaults() {
+        final List<String> features = List.of(TreeGenerator.NAME, OreGenerator.NAME);
+        return new BiomeRegistry(List.of(
+                new Biome(0, "desert", -0.3f, 3, Block.SAND.stateId(), Block.SANDSTONE.stateId(), features),
+                new Biome(1, "plains", 0.3f, 5, Block.GRASS_BLOCK.stateId(), Block.DIRT.stateId(), features),
+                new Biome(2, "forest", Float.POSITIVE_INFINITY, 15, Block.GRASS_BLOCK.stateId(), Block.DIRT.stateId(), features)
+        ));
+    }
+
+    public static BiomeRegistry load(final Path file) throws IOException {
+        try (final Reader reader = Files.newBufferedReader(file)) {
+            return load(reader);
+        }
+    }
+
+    // Malformed or inconsistent configs (unknown blocks or features, duplicate names, overlapping bands) are rejected
+    public static BiomeRegistry load(final Reader reader) {
+        final JsonArray entries = JsonParser.parseReader(reader).getAsJsonObject().getAsJsonArray("biomes");
+        if (entries == null) throw new JsonParseException("missing \"biomes\" array");
+
+        final List<Biome> biomes = new ArrayList<>(entries.size());
+        for (final JsonElement element : entries) {
+            final JsonObject entry = element.getAsJsonObject();
+            final List<String> features = new ArrayList<>();
+            if (entry.has("features")) {
+                for (final JsonElement feature : entry.getAsJsonArray("features")) {
+                    features.add(feature.getAsString());
+                }
+            }
+            biomes.add(new Biome(
+                    biomes.size(),
+                    required(entry, "name").getAsString(),
+                    entry.has("maxNoise") ? entry.get("maxNoise").getAsFloat() : Float.POSITIVE_INFINITY,
+                    required(entry, "heightVariation").getAsInt(),
+                    resolveBlock(required(entry, "topBlock").getAsString()),
+                    resolveBlock(required(entry, "underBlock").getAsString()),
+                    features
+            ));
+        }
+        try {
+            return new BiomeRegistry(biomes);
+        } catch (final IllegalArgumentException e) {
+            throw new JsonParseException(e.getMessage());
+        }
+    }
+
+    public Biome getBiome(final float noise) {
+        final int index = (int) ((noise + 1f) * HALF_RESOLUTION);
+        return table[Math.min(RESOLUTION - 1, Math.max(0, index))];
+    }
+
+    public List<Biome> getBiomes() {
+        return biomes;
+    }
+
+    public int getMaxHeightVariation() {
+        return maxHeightVariation;
+    }
+
+    private static JsonElement required(final JsonObject entry, final String field) {
+        final JsonElement value = entry.get(field);
+        if (value == null) throw new JsonParseException("biome entry is missing \"" + field + "\"");
+        return value;
+    }
+
+    private static short resolveBlock(final String namespaceId) {
+        final Block block = Block.fromNamespaceId(namespaceId);
+        if (block == null) throw new JsonParseException("unknown block: " + namespaceId);
+        return block.stateId();
+    }
+}
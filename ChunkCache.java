@@ -1,42 +1,422 @@
 package com.example.worldgen; // Replace with your desired package
 
+import net.minestom.server.entity.Player;
 import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.Section;
+import net.minestom.server.instance.palette.Palette;
+import net.minestom.server.network.packet.server.FramedPacket;
+import net.minestom.server.utils.PacketUtils;
 
-import java.util.LinkedHashMap;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 public class ChunkCache {
 
-    private final int capacity;
-    private final Map<Long, Chunk> cache;
+    private static final double DEFAULT_HEAP_THRESHOLD = 0.8;
+    private static final double SHRINK_FACTOR = 0.75;
+    private static final double GROW_FACTOR = 1.125;
+    private static final long GROW_INTERVAL_NANOS = 5_000_000_000L;
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+    private static final int SECTION_OVERHEAD_BYTES = 96;
+    private static final int REFERENCE_BYTES = 8;
+    // Eviction trims below the budget so the sort it needs is amortized over many inserts
+    private static final double EVICTION_TARGET = 0.9;
+    // Collection thresholds are JVM-wide, so one listener serves every cache and each checks its own threshold
+    private static final List<ChunkCache> HEAP_SUBSCRIBERS = new CopyOnWriteArrayList<>();
+    private static final List<MemoryPoolMXBean> HEAP_POOLS = findHeapPools();
+    private static final NotificationListener HEAP_LISTENER = ChunkCache::onHeapNotification;
+    private static boolean heapListenerRegistered;
 
-    public ChunkCache(final int capacity) {
-        this.capacity = capacity;
-        this.cache = new LinkedHashMap<>(capacity, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(final Map.Entry<Long, Chunk> eldest) {
-                return size() > capacity;
-            }
-        };
+    private final long maxBytes;
+    private final long minBytes;
+    private final boolean cachePackets;
+    // Reads are lock-free; inserts, removals and eviction serialize on this object
+    private final Map<Long, Entry> cache = new ConcurrentHashMap<>();
+    private final double heapThreshold;
+    private volatile SectionInterner sectionInterner;
+    private volatile RemovalListener removalListener;
+    private long byteBudget;
+    private long currentBytes;
+    private long evictionCount;
+    private long lastGrowNanos;
+
+    private ChunkCache(final long maxBytes, final boolean cachePackets, final double heapThreshold) {
+        this.maxBytes = maxBytes;
+        this.minBytes = maxBytes / 8;
+        this.cachePackets = cachePackets;
+        this.heapThreshold = heapThreshold;
+        this.byteBudget = maxBytes;
+        subscribeHeapPressure(this);
+    }
+
+    // The budget is in bytes of retained chunk data, not entries; named factories keep the two from being confused
+    public static ChunkCache withByteBudget(final long maxBytes) {
+        return new ChunkCache(maxBytes, true, DEFAULT_HEAP_THRESHOLD);
+    }
+
+    public static ChunkCache withByteBudget(final long maxBytes, final boolean cachePackets) {
+        return new ChunkCache(maxBytes, cachePackets, DEFAULT_HEAP_THRESHOLD);
+    }
+
+    // heapThreshold is the post-GC occupancy (fraction of max) of the old generation that triggers shrinking
+    public static ChunkCache withByteBudget(final long maxBytes, final boolean cachePackets, final double heapThreshold) {
+        return new ChunkCache(maxBytes, cachePackets, heapThreshold);
+    }
+
+    // Shared sections and light stores are charged a reference only; the interned copies themselves live in the
+    // interner and are not counted against the byte budget
+    public void setSectionInterner(final SectionInterner sectionInterner) {
+        this.sectionInterner = sectionInterner;
+    }
+
+    // Told about every chunk leaving the cache, whether unloaded or evicted
+    public void setRemovalListener(final RemovalListener removalListener) {
+        this.removalListener = removalListener;
     }
 
     public Chunk getChunk(final int chunkX, final int chunkZ) {
-        return cache.get(getKey(chunkX, chunkZ));
+        final Entry entry = getEntry(chunkX, chunkZ);
+        return entry == null ? null : entry.chunk;
     }
 
     public void putChunk(final int chunkX, final int chunkZ, final Chunk chunk) {
-        cache.put(getKey(chunkX, chunkZ), chunk);
+        putChunk(chunkX, chunkZ, chunk, null);
+    }
+
+    // light holds one LightStore per section; without it the light packet is built from the chunk itself
+    public void putChunk(final int chunkX, final int chunkZ, final Chunk chunk, final LightStore[] light) {
+        // Sized before taking the cache lock; sizing locks the chunk, and chunk writers call into the cache
+        final Entry entry = new Entry(chunk, light, sectionInterner);
+        synchronized (this) {
+            final Entry previous = cache.put(getKey(chunkX, chunkZ), entry);
+            if (previous != null) currentBytes -= previous.accountedBytes;
+            account(entry);
+            maybeGrowBudget();
+            evict();
+        }
     }
 
-    public void removeChunk(final int chunkX, final int chunkZ) {
-        cache.remove(getKey(chunkX, chunkZ));
+    public LightStore[] getLight(final int chunkX, final int chunkZ) {
+        final Entry entry = cache.get(getKey(chunkX, chunkZ));
+        return entry == null ? null : entry.light;
     }
 
-    public void clear() {
+    // Swaps in freshly computed light; stores are replaced as a whole, never mutated after publication
+    public void updateLight(final int chunkX, final int chunkZ, final LightStore[] light) {
+        final Entry entry = getEntry(chunkX, chunkZ);
+        if (entry == null) return;
+        entry.light = light;
+        entry.invalidate();
+        reaccount(chunkX, chunkZ, entry);
+    }
+
+    public synchronized void removeChunk(final int chunkX, final int chunkZ) {
+        final Entry removed = cache.remove(getKey(chunkX, chunkZ));
+        if (removed == null) return;
+        currentBytes -= removed.accountedBytes;
+        notifyRemoved(chunkX, chunkZ);
+    }
+
+    public synchronized void clear() {
         cache.clear();
+        currentBytes = 0;
+    }
+
+    public synchronized long getCurrentBytes() {
+        return currentBytes;
+    }
+
+    public synchronized long getByteBudget() {
+        return byteBudget;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    // Encodes the chunk-data and light packets once; call after lighting has finished
+    public void encodePackets(final int chunkX, final int chunkZ) {
+        if (!cachePackets) return;
+        final Entry entry = getEntry(chunkX, chunkZ);
+        if (entry == null) return;
+        entry.getPackets();
+        reaccount(chunkX, chunkZ, entry);
+    }
+
+    // InternedChunk calls this after every write; other changes to a cached chunk must call it too
+    public void invalidatePackets(final int chunkX, final int chunkZ) {
+        final Entry entry = getEntry(chunkX, chunkZ);
+        if (entry == null) return;
+        entry.invalidate();
+        // A block change may have replaced a shared section with a private copy or resized a palette
+        entry.chunkBytes = estimateChunkBytes(entry.chunk, sectionInterner);
+        reaccount(chunkX, chunkZ, entry);
+    }
+
+    // Sends a cached chunk with pre-encoded bytes when available; returns false if the chunk is not cached
+    public boolean sendChunk(final Player player, final int chunkX, final int chunkZ) {
+        final Entry entry = getEntry(chunkX, chunkZ);
+        if (entry == null) return false;
+        final FramedPacket[] packets = getPackets(chunkX, chunkZ, entry);
+        player.sendPacket(packets[0]);
+        player.sendPacket(packets[1]);
+        return true;
+    }
+
+    // Sends only the light packet, for a chunk relit after the player received it
+    public boolean sendLight(final Player player, final int chunkX, final int chunkZ) {
+        final Entry entry = getEntry(chunkX, chunkZ);
+        if (entry == null) return false;
+        player.sendPacket(getPackets(chunkX, chunkZ, entry)[1]);
+        return true;
+    }
+
+    public void shutdown() {
+        unsubscribeHeapPressure(this);
+        clear();
+    }
+
+    private FramedPacket[] getPackets(final int chunkX, final int chunkZ, final Entry entry) {
+        if (!cachePackets) return entry.encode();
+        final boolean encoded = entry.packets != null;
+        final FramedPacket[] packets = entry.getPackets();
+        if (!encoded) reaccount(chunkX, chunkZ, entry);
+        return packets;
+    }
+
+    private Entry getEntry(final int chunkX, final int chunkZ) {
+        final Entry entry = cache.get(getKey(chunkX, chunkZ));
+        if (entry != null) entry.lastAccess = System.nanoTime();
+        return entry;
+    }
+
+    private synchronized void reaccount(final int chunkX, final int chunkZ, final Entry entry) {
+        // Ignore entries that were evicted or replaced while encoding
+        if (cache.get(getKey(chunkX, chunkZ)) != entry) return;
+        account(entry);
+        evict();
+    }
+
+    private void account(final Entry entry) {
+        final long retained = entry.retainedBytes();
+        currentBytes += retained - entry.accountedBytes;
+        entry.accountedBytes = retained;
+    }
+
+    private void evict() {
+        if (currentBytes <= byteBudget) return;
+        final List<Map.Entry<Long, Entry>> entries = new ArrayList<>(cache.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccess));
+        final long target = (long) (byteBudget * EVICTION_TARGET);
+        // Always keep the most recent entry, even if it alone exceeds the budget
+        for (int i = 0; i < entries.size() - 1 && currentBytes > target; i++) {
+            final Map.Entry<Long, Entry> eldest = entries.get(i);
+            if (cache.remove(eldest.getKey(), eldest.getValue())) {
+                currentBytes -= eldest.getValue().accountedBytes;
+                evictionCount++;
+                notifyRemoved((int) (eldest.getKey() >> 32), (int) (long) eldest.getKey());
+            }
+        }
+    }
+
+    private void notifyRemoved(final int chunkX, final int chunkZ) {
+        final RemovalListener listener = removalListener;
+        if (listener != null) listener.onRemoved(chunkX, chunkZ);
+    }
+
+    // --- Heap Pressure ---
+    private static List<MemoryPoolMXBean> findHeapPools() {
+        final List<MemoryPoolMXBean> pools = new ArrayList<>();
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) continue;
+            // Eden and survivor pools don't support usage thresholds, which leaves only the tenured pool
+            if (pool.isUsageThresholdSupported() && pool.getUsage().getMax() > 0) pools.add(pool);
+        }
+        return pools;
+    }
+
+    private static synchronized void subscribeHeapPressure(final ChunkCache cache) {
+        if (HEAP_POOLS.isEmpty()) return;
+        HEAP_SUBSCRIBERS.add(cache);
+        updateHeapThresholds();
+        if (!heapListenerRegistered) {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(HEAP_LISTENER, null, null);
+            heapListenerRegistered = true;
+        }
+    }
+
+    private static synchronized void unsubscribeHeapPressure(final ChunkCache cache) {
+        if (HEAP_SUBSCRIBERS.remove(cache)) updateHeapThresholds();
+    }
+
+    // The pools notify at the lowest threshold any live cache asked for; zero disables notification
+    private static void updateHeapThresholds() {
+        double lowest = 0;
+        for (final ChunkCache cache : HEAP_SUBSCRIBERS) {
+            lowest = lowest == 0 ? cache.heapThreshold : Math.min(lowest, cache.heapThreshold);
+        }
+        for (final MemoryPoolMXBean pool : HEAP_POOLS) {
+            pool.setCollectionUsageThreshold((long) (pool.getUsage().getMax() * lowest));
+        }
+    }
+
+    private static void onHeapNotification(final Notification notification, final Object handback) {
+        if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) return;
+        final double occupancy = heapOccupancy();
+        for (final ChunkCache cache : HEAP_SUBSCRIBERS) {
+            if (occupancy >= cache.heapThreshold) cache.shrinkBudget();
+        }
+    }
+
+    // Post-GC occupancy of the fullest tenured pool, as a fraction of its max
+    private static double heapOccupancy() {
+        double occupancy = 0;
+        for (final MemoryPoolMXBean pool : HEAP_POOLS) {
+            final MemoryUsage usage = pool.getCollectionUsage();
+            if (usage != null && usage.getMax() > 0) occupancy = Math.max(occupancy, usage.getUsed() / (double) usage.getMax());
+        }
+        return occupancy;
+    }
+
+    private synchronized void shrinkBudget() {
+        byteBudget = Math.max(minBytes, (long) (byteBudget * SHRINK_FACTOR));
+        lastGrowNanos = System.nanoTime();
+        evict();
+    }
+
+    private void maybeGrowBudget() {
+        if (byteBudget >= maxBytes) return;
+        final long now = System.nanoTime();
+        if (now - lastGrowNanos < GROW_INTERVAL_NANOS) return;
+        lastGrowNanos = now;
+        if (heapOccupancy() > heapThreshold * 0.9) return;
+        byteBudget = Math.min(maxBytes, (long) (byteBudget * GROW_FACTOR));
+    }
+
+    // Rough retained size of the blocks: packed palette data plus the indirect palette table and object headers
+    private static long estimateChunkBytes(final Chunk chunk, final SectionInterner interner) {
+        long bytes = ENTRY_OVERHEAD_BYTES;
+        synchronized (chunk) {
+            for (final Section section : chunk.getSections()) {
+                if (section == null) continue;
+                bytes += isShared(interner, section) ? REFERENCE_BYTES : SECTION_OVERHEAD_BYTES + estimatePaletteBytes(section.blockPalette());
+            }
+        }
+        return bytes;
+    }
+
+    private static long estimatePaletteBytes(final Palette palette) {
+        final int bitsPerEntry = palette.bitsPerEntry();
+        if (bitsPerEntry == 0) return 16; // Single-value palette
+        final int entriesPerLong = Long.SIZE / bitsPerEntry;
+        final long dataBytes = (long) ((palette.maxSize() + entriesPerLong - 1) / entriesPerLong) * Long.BYTES;
+        final long tableBytes = bitsPerEntry <= 8 ? (1L << bitsPerEntry) * Integer.BYTES * 2 : 0;
+        return dataBytes + tableBytes;
+    }
+
+    private static boolean isShared(final SectionInterner interner, final Object sectionOrLight) {
+        return interner != null && interner.isShared(sectionOrLight);
     }
 
     private long getKey(final int chunkX, final int chunkZ) {
         return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
     }
-}
\ No newline at end of file
+
+    // Runs with the cache locked, so it must not call back into the cache
+    public interface RemovalListener {
+        void onRemoved(int chunkX, int chunkZ);
+    }
+
+    private static final class Entry {
+        private final Chunk chunk;
+        private final SectionInterner interner;
+        private volatile long chunkBytes;
+        private volatile LightStore[] light;
+        // Chunk-data and light packets, or null until encoded / after invalidation
+        private volatile FramedPacket[] packets;
+        private int version;
+        private long accountedBytes;
+        private volatile long lastAccess = System.nanoTime();
+
+        private Entry(final Chunk chunk, final LightStore[] light, final SectionInterner interner) {
+            this.chunk = chunk;
+            this.light = light;
+            this.interner = interner;
+            this.chunkBytes = estimateChunkBytes(chunk, interner);
+        }
+
+        private long retainedBytes() {
+            final FramedPacket[] encoded = packets;
+            final LightStore[] stores = light;
+            long bytes = chunkBytes;
+            if (stores != null) {
+                for (final LightStore store : stores) {
+                    bytes += isShared(interner, store) ? REFERENCE_BYTES : LightStore.estimateBytes();
+                }
+            }
+            if (encoded != null) {
+                for (final FramedPacket packet : encoded) {
+                    bytes += packet.body().capacity();
+                }
+            }
+            return bytes;
+        }
+
+        private FramedPacket[] getPackets() {
+            FramedPacket[] encoded = packets;
+            if (encoded == null) {
+                final int startVersion;
+                synchronized (this) {
+                    startVersion = version;
+                }
+                encoded = encode();
+                synchronized (this) {
+                    // Drop the bytes if the chunk changed while we were encoding
+                    if (version == startVersion) packets = encoded;
+                }
+            }
+            return encoded;
+        }
+
+        private synchronized void invalidate() {
+            version++;
+            packets = null;
+        }
+
+        private FramedPacket[] encode() {
+            final int chunkX = chunk.getChunkX();
+            final int chunkZ = chunk.getChunkZ();
+            // Block writes, section swaps and relighting all hold the chunk's monitor
+            synchronized (chunk) {
+                final LightStore[] stores = light;
+                return new FramedPacket[]{
+                        PacketUtils.allocateTrimmedPacket(chunk.getFreshFullDataPacket()),
+                        PacketUtils.allocateTrimmedPacket(stores != null
+                                ? LightStore.createLightPacket(chunkX, chunkZ, stores)
+                                : chunk.createLightPacket())
+                };
+            }
+        }
+
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.worldgen; // Replace with your desired package
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+// Handoff from generator threads to the tick thread; each drain runs only up to a time/count budget
+public class ChunkCompletionQueue {
+
+    private final Queue<Runnable> completions = new ConcurrentLinkedQueue<>();
+    private final long budgetNanos;
+    private final int maxPerTick;
+
+    public ChunkCompletionQueue(final long budget, final TimeUnit unit, final int maxPerTick) {
+        this.budgetNanos = unit.toNanos(budget);
+        this.maxPerTick = maxPerTick;
+    }
+
+    public void submit(final Runnable completion) {
+        completions.offer(completion);
+    }
+
+    // Call once per tick from the tick thread; whatever is left over carries to the next tick
+    public int drain() {
+        final long start = System.nanoTime();
+        int processed = 0;
+        // At least one completion always runs so a tiny budget can't stall the queue
+        while (processed < maxPerTick && (processed == 0 || System.nanoTime() - start < budgetNanos)) {
+            final Runnable completion = completions.poll();
+            if (completion == null) break;
+            completion.run();
+            processed++;
+        }
+        return processed;
+    }
+
+    public int size() {
+        return completions.size();
+    }
+
+    public void clear() {
+        completions.clear();
+    }
+}
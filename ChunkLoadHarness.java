@@ -0,0 +1,276 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.coordinate.Pos;
+import net.minestom.server.entity.Player;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.network.player.FakePlayerConnection;
+import net.minestom.server.world.DimensionType;
+
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Headless load test: fake players without a network stack drive ChunkLoader/ChunkUnloader on a 50 ms tick.
+// Synthetic: the server is never started, so the tick is the harness's own timer, not Minestom's scheduler, and
+// tick times cover only chunk loading (no entities, physics or network flush).
+// Usage: ChunkLoadHarness [players=50] [seconds=60] [WALK|SPRINT|ELYTRA|TELEPORT|MIXED]
+public class ChunkLoadHarness {
+
+    private static final long TICK_MILLIS = 50;
+    private static final double SPAWN_Y = 65;
+    private static final int TELEPORT_INTERVAL_TICKS = 200;
+    private static final int TELEPORT_DISTANCE = 2000;
+    private static final int MAX_LATENCY_SAMPLES = 1 << 20;
+
+    public enum MovementPattern {
+        WALK(4.317),
+        SPRINT(5.612),
+        ELYTRA(30.0),
+        TELEPORT(0.0);
+
+        private final double blocksPerSecond;
+
+        MovementPattern(final double blocksPerSecond) {
+            this.blocksPerSecond = blocksPerSecond;
+        }
+    }
+
+    private final InstanceContainer instance;
+    private final FastWorldGenerator generator;
+    private final ChunkLoader chunkLoader;
+    private final ChunkUnloader chunkUnloader;
+    private final List<SimulatedPlayer> players = new ArrayList<>();
+    private final List<Player> viewers = new ArrayList<>();
+    private final Map<UUID, SimulatedPlayer> playersById = new ConcurrentHashMap<>();
+    private final long[] latencies = new long[MAX_LATENCY_SAMPLES];
+    private final long[] tickTimes;
+    private final AtomicLong chunksSent = new AtomicLong();
+    private int latencyCount;
+    private int tickCount;
+    private long peakHeapBytes;
+    private long elapsedNanos;
+    private long gcCount;
+    private long gcMillis;
+
+    public ChunkLoadHarness(final InstanceContainer instance, final FastWorldGenerator generator, final int maxTicks) {
+        this.instance = instance;
+        this.generator = generator;
+        this.chunkLoader = new ChunkLoader(generator, instance);
+        this.chunkUnloader = new ChunkUnloader(instance, generator.getChunkCache());
+        this.tickTimes = new long[maxTicks];
+        chunkLoader.setListener(this::onChunkSent);
+    }
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int playerCount = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        final int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        final String pattern = args.length > 2 ? args[2].toUpperCase() : "MIXED";
+
+        MinecraftServer.init(); // Registries only; the server is never started, so no network is bound
+        final InstanceContainer instance = MinecraftServer.getInstanceManager().createInstanceContainer(DimensionType.OVERWORLD);
+        final FastWorldGenerator generator = new FastWorldGenerator(ChunkCache.withByteBudget(256L * 1024 * 1024), Runtime.getRuntime().availableProcessors());
+        instance.setChunkGenerator(generator);
+
+        final int maxTicks = (int) (seconds * 1000L / TICK_MILLIS);
+        final ChunkLoadHarness harness = new ChunkLoadHarness(instance, generator, maxTicks);
+        final MovementPattern[] patterns = MovementPattern.values();
+        for (int i = 0; i < playerCount; i++) {
+            final MovementPattern movement = pattern.equals("MIXED") ? patterns[i % patterns.length] : MovementPattern.valueOf(pattern);
+            harness.addPlayer(movement, i);
+        }
+
+        harness.run(maxTicks);
+        harness.report(System.out);
+
+        harness.shutdown();
+        MinecraftServer.stopCleanly();
+    }
+
+    public void shutdown() {
+        chunkLoader.shutdown();
+        chunkUnloader.shutdown();
+    }
+
+    public void addPlayer(final MovementPattern movement, final int index) {
+        final UUID uuid = UUID.randomUUID();
+        final Player player = new Player(uuid, "sim-" + index, new FakePlayerConnection());
+        final SimulatedPlayer simulated = new SimulatedPlayer(player, movement, new Random(index));
+        player.refreshPosition(simulated.position);
+        players.add(simulated);
+        viewers.add(player);
+        playersById.put(uuid, simulated);
+    }
+
+    public void run(final int ticks) throws InterruptedException {
+        final long gcCountBefore = totalGcCount();
+        final long gcTimeBefore = totalGcMillis();
+        final long start = System.nanoTime();
+
+        // Single-threaded like the server tick, but on a plain timer; see the class comment
+        final ScheduledExecutorService tickThread = Executors.newSingleThreadScheduledExecutor();
+        tickThread.scheduleAtFixedRate(() -> {
+            try {
+                tick();
+            } catch (final RuntimeException e) {
+                e.printStackTrace(); // Keep ticking; a thrown exception would cancel the schedule
+            }
+        }, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        Thread.sleep(ticks * TICK_MILLIS);
+        tickThread.shutdown();
+        tickThread.awaitTermination(1, TimeUnit.SECONDS);
+
+        elapsedNanos = System.nanoTime() - start;
+        gcCount = totalGcCount() - gcCountBefore;
+        gcMillis = totalGcMillis() - gcTimeBefore;
+    }
+
+    private void tick() {
+        if (tickCount >= tickTimes.length) return;
+        final long tickStart = System.nanoTime();
+        for (final SimulatedPlayer simulated : players) {
+            simulated.move(tickCount);
+            chunkLoader.loadChunksAroundPlayer(simulated.player);
+        }
+        // One pass over the union of all views; per-player passes would unload chunks other players still see
+        chunkUnloader.unloadChunks(viewers);
+        chunkLoader.processCompletedChunks();
+        for (final SimulatedPlayer simulated : players) {
+            simulated.checkFullView(tickStart);
+        }
+
+        peakHeapBytes = Math.max(peakHeapBytes, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+        tickTimes[tickCount++] = System.nanoTime() - tickStart;
+    }
+
+    // Only called for chunks actually sent; ones evicted before sending are re-requested instead
+    private void onChunkSent(final Player player, final int chunkX, final int chunkZ, final long latencyNanos) {
+        chunksSent.incrementAndGet();
+        chunkUnloader.addLoadedChunk(chunkX, chunkZ); // Tick thread, same as unloadChunks
+        if (latencyCount < latencies.length) latencies[latencyCount++] = latencyNanos;
+        final SimulatedPlayer simulated = playersById.get(player.getUuid());
+        if (simulated != null) simulated.delivered.add(((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL));
+    }
+
+    public void report(final PrintStream out) {
+        final double seconds = elapsedNanos / 1e9;
+        final long[] sortedLatencies = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sortedLatencies);
+        final long[] sortedTicks = Arrays.copyOf(tickTimes, tickCount);
+        Arrays.sort(sortedTicks);
+
+        final List<Long> fullView = new ArrayList<>();
+        for (final SimulatedPlayer simulated : players) {
+            fullView.addAll(simulated.fullViewNanos);
+        }
+        final long[] sortedFullView = fullView.stream().mapToLong(Long::longValue).sorted().toArray();
+
+        out.printf("synthetic tick (own %dms timer, server not started)%n", TICK_MILLIS);
+        out.printf("players=%d ticks=%d elapsed=%.1fs%n", players.size(), tickCount, seconds);
+        out.printf("chunks sent=%d (%.1f chunks/s)%n", chunksSent.get(), chunksSent.get() / seconds);
+        out.printf("chunk latency p50=%.1fms p99=%.1fms%n", percentileMillis(sortedLatencies, 0.50), percentileMillis(sortedLatencies, 0.99));
+        out.printf("time-to-full-view samples=%d p50=%.1fms p99=%.1fms%n", sortedFullView.length,
+                percentileMillis(sortedFullView, 0.50), percentileMillis(sortedFullView, 0.99));
+        out.printf("tick p50=%.1fms p99=%.1fms max=%.1fms%n", percentileMillis(sortedTicks, 0.50),
+                percentileMillis(sortedTicks, 0.99), percentileMillis(sortedTicks, 1.0));
+        out.printf("heap peak=%dMiB cache=%dMiB/%dMiB evictions=%d%n", peakHeapBytes >> 20,
+                generator.getChunkCache().getCurrentBytes() >> 20, generator.getChunkCache().getByteBudget() >> 20,
+                generator.getChunkCache().getEvictionCount());
+        out.printf("gc collections=%d time=%dms%n", gcCount, gcMillis);
+
+        // Aggregate percentiles hide a starved player, so each one is listed; "waiting" is a view still incomplete
+        final long now = System.nanoTime();
+        for (final SimulatedPlayer simulated : players) {
+            final long[] sorted = simulated.fullViewNanos.stream().mapToLong(Long::longValue).sorted().toArray();
+            out.printf("  %s %s time-to-full-view samples=%d p50=%.1fms max=%.1fms%s%n", simulated.player.getUsername(),
+                    simulated.movement, sorted.length, percentileMillis(sorted, 0.50), percentileMillis(sorted, 1.0),
+                    simulated.viewStartNanos < 0 ? "" : String.format(" waiting=%.1fms", (now - simulated.viewStartNanos) / 1e6));
+        }
+    }
+
+    private static double percentileMillis(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) return 0;
+        final int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private static long totalGcCount() {
+        long count = 0;
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    private static long totalGcMillis() {
+        long millis = 0;
+        for (final GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private static final class SimulatedPlayer {
+        private final Player player;
+        private final MovementPattern movement;
+        private final Random random;
+        private final Set<Long> delivered = ConcurrentHashMap.newKeySet();
+        private final List<Long> fullViewNanos = new ArrayList<>();
+        private Pos position;
+        private double heading;
+        // Start of the current "fresh view" (spawn or teleport); -1 once the full view has arrived
+        private long viewStartNanos = System.nanoTime();
+
+        private SimulatedPlayer(final Player player, final MovementPattern movement, final Random random) {
+            this.player = player;
+            this.movement = movement;
+            this.random = random;
+            this.heading = random.nextDouble() * Math.PI * 2;
+            this.position = new Pos(random.nextInt(512) - 256, SPAWN_Y, random.nextInt(512) - 256);
+        }
+
+        private void move(final int tick) {
+            if (movement == MovementPattern.TELEPORT) {
+                if (tick > 0 && tick % TELEPORT_INTERVAL_TICKS == 0) {
+                    position = position.add(Math.cos(heading) * TELEPORT_DISTANCE, 0, Math.sin(heading) * TELEPORT_DISTANCE);
+                    heading = random.nextDouble() * Math.PI * 2;
+                    delivered.clear();
+                    viewStartNanos = System.nanoTime();
+                    player.refreshPosition(position);
+                }
+                return;
+            }
+
+            if (random.nextInt(100) == 0) heading += (random.nextDouble() - 0.5) * Math.PI / 2;
+            final double step = movement.blocksPerSecond * TICK_MILLIS / 1000.0;
+            position = position.add(Math.cos(heading) * step, 0, Math.sin(heading) * step);
+            player.refreshPosition(position);
+        }
+
+        private void checkFullView(final long now) {
+            if (viewStartNanos < 0) return;
+            final int viewDistance = player.getViewDistance();
+            final int centerX = position.chunkX();
+            final int centerZ = position.chunkZ();
+            for (int x = centerX - viewDistance; x <= centerX + viewDistance; x++) {
+                for (int z = centerZ - viewDistance; z <= centerZ + viewDistance; z++) {
+                    if (!delivered.contains(((long) x << 32) | (z & 0xFFFFFFFFL))) return;
+                }
+            }
+            fullViewNanos.add(now - viewStartNanos);
+            viewStartNanos = -1;
+        }
+    }
+}
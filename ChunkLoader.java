@@ -8,19 +8,61 @@ import net.minestom.server.instance.Instance;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class ChunkLoader {
 
+    private static final long DEFAULT_TICK_BUDGET_MILLIS = 5;
+    private static final int DEFAULT_MAX_COMPLETIONS_PER_TICK = 64;
+    private static final int IDLE_REALIZE_BATCH = 4;
+
     private final FastWorldGenerator chunkGenerator;
     private final Instance instance;
+    private final ChunkCompletionQueue completionQueue;
     private final Map<Long, CompletableFuture<Chunk>> pendingLoads = new ConcurrentHashMap<>();
-
+    // Chunks requested for and sent to each player, so a chunk is encoded/sent once per view and later
+    // light or block updates reach exactly the players holding it
+    private final Map<UUID, PlayerView> playerViews = new ConcurrentHashMap<>();
+    private final FastWorldGenerator.UpdateListener updateListener = this::onChunkUpdated;
+    private volatile Listener listener;
+    private volatile ChunkTraceRecorder traceRecorder;
 
     public ChunkLoader(final FastWorldGenerator chunkGenerator, final Instance instance) {
+        this(chunkGenerator, instance, DEFAULT_TICK_BUDGET_MILLIS, TimeUnit.MILLISECONDS, DEFAULT_MAX_COMPLETIONS_PER_TICK);
+    }
+
+    public ChunkLoader(final FastWorldGenerator chunkGenerator, final Instance instance,
+                       final long tickBudget, final TimeUnit unit, final int maxCompletionsPerTick) {
         this.chunkGenerator = chunkGenerator;
         this.instance = instance;
+        this.completionQueue = new ChunkCompletionQueue(tickBudget, unit, maxCompletionsPerTick);
+        chunkGenerator.addUpdateListener(updateListener);
+    }
+
+    // Applies finished chunks on the tick thread within the configured budget; call once per tick
+    public int processCompletedChunks() {
+        final int processed = completionQueue.drain();
+        if (processed == 0) {
+            chunkGenerator.realizeIdleSections(IDLE_REALIZE_BATCH);
+        }
+        return processed;
+    }
+
+    public void setListener(final Listener listener) {
+        this.listener = listener;
+    }
+
+    // Records requests, cancellations and completions; null turns tracing off
+    public void setTraceRecorder(final ChunkTraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
+    public int getPendingCompletions() {
+        return completionQueue.size();
     }
 
     public void loadChunksAroundPlayer(final Player player) {
@@ -29,7 +71,14 @@ public class ChunkLoader {
         final int playerChunkZ = playerPosition.chunkZ();
         final int viewDistance = player.getViewDistance();
 
-        cancelOutOfRangeLoads(playerChunkX, playerChunkZ, viewDistance);
+        chunkGenerator.realizeSectionsNear(player);
+
+        final PlayerView view = playerViews.computeIfAbsent(player.getUuid(), uuid -> new PlayerView(player));
+        final Set<Long> requested = view.requested;
+        requested.removeIf(chunkKey -> Math.abs(getChunkX(chunkKey) - playerChunkX) > viewDistance
+                || Math.abs(getChunkZ(chunkKey) - playerChunkZ) > viewDistance);
+        view.sent.retainAll(requested);
+        cancelUnwantedLoads();
 
         final PriorityQueue<ChunkLoadTask> chunkLoadQueue = new PriorityQueue<>(
                 Comparator.comparingInt(ChunkLoadTask::getPriority)
@@ -41,7 +90,7 @@ public class ChunkLoader {
                         Math.pow(x - playerChunkX, 2) + Math.pow(z - playerChunkZ, 2)
                 );
                 final long chunkKey = getKey(x, z);
-                if (!pendingLoads.containsKey(chunkKey)) {
+                if (!requested.contains(chunkKey)) {
                     chunkLoadQueue.add(new ChunkLoadTask(x, z, (int) distance, instance, chunkGenerator));
                 }
             }
@@ -52,31 +101,93 @@ public class ChunkLoader {
             final int chunkX = task.getChunkX();
             final int chunkZ = task.getChunkZ();
             final long chunkKey = getKey(chunkX, chunkZ);
-            final CompletableFuture<Chunk> future = task.getChunkGenerator().generate(task.getInstance(), chunkX, chunkZ);
-            pendingLoads.put(chunkKey, future);
+            traceRequest(player, chunkX, chunkZ);
+            CompletableFuture<Chunk> future = pendingLoads.get(chunkKey);
+            if (future == null) {
+                final CompletableFuture<Chunk> created = task.getChunkGenerator().generate(task.getInstance(), chunkX, chunkZ, player.getUuid());
+                pendingLoads.put(chunkKey, created);
+                // Failed and cancelled loads leave too, so the next request generates the chunk again
+                created.whenComplete((chunk, throwable) -> pendingLoads.remove(chunkKey, created));
+                future = created;
+            }
+            requested.add(chunkKey);
+            final long requestNanos = System.nanoTime();
 
-            future.thenAccept(chunk -> {
-                pendingLoads.remove(chunkKey);
-            });
+            // Generator threads only enqueue; sending happens in processCompletedChunks on the tick thread
+            future.whenComplete((chunk, throwable) -> completionQueue.submit(() -> {
+                if (playerViews.get(player.getUuid()) != view) return; // Player left meanwhile
+                // Cached chunks carry pre-encoded packet bytes, so N viewers cost N buffer writes
+                if (throwable != null || !chunkGenerator.getChunkCache().sendChunk(player, chunkX, chunkZ)) {
+                    // Cancelled, failed, or evicted before it could be sent; retry on the next pass
+                    requested.remove(chunkKey);
+                } else {
+                    view.sent.add(chunkKey);
+                    trace(ChunkTraceRecorder.Event.COMPLETE, player, chunkX, chunkZ);
+                    final Listener currentListener = listener;
+                    if (currentListener != null) {
+                        currentListener.onChunkSent(player, chunkX, chunkZ, System.nanoTime() - requestNanos);
+                    }
+                }
+            }));
         }
     }
 
-    private void cancelOutOfRangeLoads(final int playerChunkX, final int playerChunkZ, final int viewDistance) {
+    public void removePlayer(final Player player) {
+        playerViews.remove(player.getUuid());
+    }
+
+    // Deferred lighting and realized sections change chunks after they were sent; resend on the tick thread
+    private void onChunkUpdated(final int chunkX, final int chunkZ, final boolean blocksChanged) {
+        final long chunkKey = getKey(chunkX, chunkZ);
+        completionQueue.submit(() -> {
+            for (final PlayerView view : playerViews.values()) {
+                if (!view.sent.contains(chunkKey)) continue;
+                final boolean resent = blocksChanged
+                        ? chunkGenerator.getChunkCache().sendChunk(view.player, chunkX, chunkZ)
+                        : chunkGenerator.getChunkCache().sendLight(view.player, chunkX, chunkZ);
+                if (!resent) {
+                    // Evicted meanwhile; request it again so the player isn't left with the stale copy
+                    view.sent.remove(chunkKey);
+                    view.requested.remove(chunkKey);
+                }
+            }
+        });
+    }
+
+    // Loads are shared between players; one is cancelled only once no tracked player still has it requested
+    private void cancelUnwantedLoads() {
         for (final Map.Entry<Long, CompletableFuture<Chunk>> entry : pendingLoads.entrySet()) {
             final long chunkKey = entry.getKey();
-            final int chunkX = getChunkX(chunkKey);
-            final int chunkZ = getChunkZ(chunkKey);
+            if (isWanted(chunkKey)) continue;
 
-            if (Math.abs(chunkX - playerChunkX) > viewDistance || Math.abs(chunkZ - playerChunkZ) > viewDistance) {
-                final CompletableFuture<Chunk> future = entry.getValue();
-                if (!future.isDone() && !future.isCancelled()) {
-                    future.cancel(false);
-                }
-                pendingLoads.remove(chunkKey);
+            final CompletableFuture<Chunk> future = entry.getValue();
+            if (!future.isDone() && !future.isCancelled()) {
+                future.cancel(false);
+                trace(ChunkTraceRecorder.Event.CANCEL, null, getChunkX(chunkKey), getChunkZ(chunkKey));
             }
+            pendingLoads.remove(chunkKey, future);
         }
     }
 
+    private boolean isWanted(final long chunkKey) {
+        for (final PlayerView view : playerViews.values()) {
+            if (view.requested.contains(chunkKey)) return true;
+        }
+        return false;
+    }
+
+    // Cache presence is taken before generate is called, the same test ChunkTraceReplay applies to its own cache
+    private void traceRequest(final Player player, final int chunkX, final int chunkZ) {
+        final ChunkTraceRecorder recorder = traceRecorder;
+        if (recorder == null) return;
+        recorder.recordRequest(player.getUuid(), chunkX, chunkZ, chunkGenerator.getChunkCache().getChunk(chunkX, chunkZ) != null);
+    }
+
+    private void trace(final ChunkTraceRecorder.Event event, final Player player, final int chunkX, final int chunkZ) {
+        final ChunkTraceRecorder recorder = traceRecorder;
+        if (recorder != null) recorder.record(event, player == null ? null : player.getUuid(), chunkX, chunkZ);
+    }
+
     private long getKey(final int chunkX, final int chunkZ) {
         return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
     }
@@ -96,7 +207,25 @@ public class ChunkLoader {
                 future.cancel(false);
             }
         }
+        chunkGenerator.removeUpdateListener(updateListener);
         pendingLoads.clear();
+        playerViews.clear();
+        completionQueue.clear();
+    }
+
+    public interface Listener {
+        // Called on the tick thread once a chunk has been sent; latency runs from request to send
+        void onChunkSent(Player player, int chunkX, int chunkZ, long latencyNanos);
+    }
+
+    private static final class PlayerView {
+        private final Player player;
+        private final Set<Long> requested = ConcurrentHashMap.newKeySet();
+        private final Set<Long> sent = ConcurrentHashMap.newKeySet();
+
+        private PlayerView(final Player player) {
+            this.player = player;
+        }
     }
 
     private static class ChunkLoadTask {
@@ -0,0 +1,9 @@
+package com.example.worldgen; // Replace with your desired package
+
+// Every status above TERRAIN needs the 3x3 neighborhood at the previous status first
+public enum ChunkStatus {
+    EMPTY,
+    TERRAIN,
+    FEATURES,
+    LIGHT
+}
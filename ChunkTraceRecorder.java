@@ -0,0 +1,132 @@
+package com.example.worldgen; // Replace with your desired package
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+// Compact binary trace of production chunk traffic, replayed offline by ChunkTraceReplay.
+// Layout: MAGIC, VERSION, then records of [event id:byte][time since previous record, micros:varlong][player:varint]
+// followed by [chunkX:zigzag varint][chunkZ:zigzag varint], or by the UUID for PLAYER records. REQUEST records end
+// with [cached:byte], 1 if the chunk was already in the cache when it was requested.
+// Players are numbered from 1 on first appearance; player 0 means the event has no player (e.g. unloads).
+public class ChunkTraceRecorder implements Closeable {
+
+    public static final int MAGIC = 0x43545243;
+    public static final int VERSION = 1;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    // Ids are part of the file format
+    public enum Event {
+        PLAYER(0),
+        REQUEST(1),
+        CANCEL(2),
+        UNLOAD(3),
+        COMPLETE(4);
+
+        private static final Event[] VALUES = values();
+
+        private final int id;
+
+        Event(final int id) {
+            this.id = id;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public static Event fromId(final int id) {
+            for (final Event event : VALUES) {
+                if (event.id == id) return event;
+            }
+            throw new IllegalArgumentException("unknown trace event: " + id);
+        }
+    }
+
+    private final DataOutputStream out;
+    private final Map<UUID, Integer> playerIds = new HashMap<>();
+    private long lastNanos = System.nanoTime();
+    private long recordCount;
+    private boolean failed;
+
+    public ChunkTraceRecorder(final Path file) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), BUFFER_BYTES));
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    // Called from the tick thread and generator threads alike; records are small, so one lock is enough
+    public synchronized void record(final Event event, final UUID player, final int chunkX, final int chunkZ) {
+        if (event == Event.REQUEST) throw new IllegalArgumentException("use recordRequest for REQUEST records");
+        write(event, player, chunkX, chunkZ, -1);
+    }
+
+    // cached: the chunk was already in the cache, so the request is served without generating
+    public synchronized void recordRequest(final UUID player, final int chunkX, final int chunkZ, final boolean cached) {
+        write(Event.REQUEST, player, chunkX, chunkZ, cached ? 1 : 0);
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        failed = true;
+        out.close();
+    }
+
+    private void write(final Event event, final UUID player, final int chunkX, final int chunkZ, final int flag) {
+        if (failed) return;
+        try {
+            final int playerId = player == null ? 0 : playerId(player);
+            writeHeader(event, playerId);
+            writeVarLong(zigZag(chunkX));
+            writeVarLong(zigZag(chunkZ));
+            if (flag >= 0) out.writeByte(flag);
+            recordCount++;
+        } catch (final IOException e) {
+            failed = true; // Stop tracing rather than failing chunk loading
+            e.printStackTrace();
+        }
+    }
+
+    private int playerId(final UUID player) throws IOException {
+        Integer id = playerIds.get(player);
+        if (id == null) {
+            id = playerIds.size() + 1;
+            playerIds.put(player, id);
+            writeHeader(Event.PLAYER, id);
+            out.writeLong(player.getMostSignificantBits());
+            out.writeLong(player.getLeastSignificantBits());
+        }
+        return id;
+    }
+
+    private void writeHeader(final Event event, final int playerId) throws IOException {
+        final long now = System.nanoTime();
+        out.writeByte(event.getId());
+        writeVarLong(Math.max(0, (now - lastNanos) / 1000));
+        writeVarLong(playerId);
+        // Carry the sub-microsecond remainder so deltas don't drift over long traces
+        lastNanos = now - (now - lastNanos) % 1000;
+    }
+
+    private void writeVarLong(long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long zigZag(final int value) {
+        return ((value << 1) ^ (value >> 31)) & 0xFFFFFFFFL;
+    }
+}
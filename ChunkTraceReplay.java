@@ -0,0 +1,222 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.MinecraftServer;
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.InstanceContainer;
+import net.minestom.server.world.DimensionType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Feeds a trace from ChunkTraceRecorder through a fresh generator, cache and lighting stack.
+// Usage: ChunkTraceReplay <trace> [ASAP|REALTIME] [cacheMiB=256] [threads=cores]
+public class ChunkTraceReplay {
+
+    private static final int BUFFER_BYTES = 64 * 1024;
+    private static final int MAX_LATENCY_SAMPLES = 1 << 20;
+    private static final long DRAIN_TIMEOUT_SECONDS = 60;
+
+    public enum Mode {
+        ASAP,
+        REALTIME
+    }
+
+    private final InstanceContainer instance;
+    private final FastWorldGenerator generator;
+    private final Mode mode;
+    private final Map<Long, CompletableFuture<Chunk>> pendingLoads = new ConcurrentHashMap<>();
+    private final long[] latencies = new long[MAX_LATENCY_SAMPLES];
+    private final AtomicInteger latencyCount = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private long requests;
+    private long replayHits;
+    private long cancels;
+    private long unloads;
+    private long recordedHits;
+    private long recordedCompletions;
+    private long traceMicros;
+    private long elapsedNanos;
+
+    public ChunkTraceReplay(final InstanceContainer instance, final FastWorldGenerator generator, final Mode mode) {
+        this.instance = instance;
+        this.generator = generator;
+        this.mode = mode;
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        if (args.length == 0) {
+            System.err.println("usage: ChunkTraceReplay <trace> [ASAP|REALTIME] [cacheMiB] [threads]");
+            return;
+        }
+        final Path trace = Paths.get(args[0]);
+        final Mode mode = args.length > 1 ? Mode.valueOf(args[1].toUpperCase()) : Mode.ASAP;
+        final long cacheBytes = (args.length > 2 ? Long.parseLong(args[2]) : 256) * 1024 * 1024;
+        final int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+
+        MinecraftServer.init(); // Registries only; the server is never started
+        final InstanceContainer instance = MinecraftServer.getInstanceManager().createInstanceContainer(DimensionType.OVERWORLD);
+        final FastWorldGenerator generator = new FastWorldGenerator(ChunkCache.withByteBudget(cacheBytes), threads);
+        instance.setChunkGenerator(generator);
+
+        final ChunkTraceReplay replay = new ChunkTraceReplay(instance, generator, mode);
+        replay.replay(trace);
+        replay.report(System.out);
+
+        generator.shutdown();
+        MinecraftServer.stopCleanly();
+    }
+
+    public void replay(final Path trace) throws IOException, InterruptedException {
+        final long start = System.nanoTime();
+        try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(trace.toFile()), BUFFER_BYTES))) {
+            if (in.readInt() != ChunkTraceRecorder.MAGIC) throw new IOException("not a chunk trace: " + trace);
+            final int version = in.readInt();
+            if (version != ChunkTraceRecorder.VERSION) throw new IOException("unsupported trace version " + version);
+
+            while (true) {
+                final int eventId = in.read();
+                if (eventId < 0) break;
+                final ChunkTraceRecorder.Event event = ChunkTraceRecorder.Event.fromId(eventId);
+                traceMicros += readVarLong(in);
+                readVarLong(in); // Player id; the stack under test has no notion of players
+                if (event == ChunkTraceRecorder.Event.PLAYER) {
+                    in.readLong();
+                    in.readLong();
+                    continue;
+                }
+                final int chunkX = unZigZag(readVarLong(in));
+                final int chunkZ = unZigZag(readVarLong(in));
+                if (event == ChunkTraceRecorder.Event.REQUEST && readFlag(in)) recordedHits++;
+
+                if (mode == Mode.REALTIME) waitUntil(start, traceMicros);
+                apply(event, chunkX, chunkZ);
+            }
+        }
+
+        drain();
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    private void apply(final ChunkTraceRecorder.Event event, final int chunkX, final int chunkZ) {
+        final long chunkKey = getKey(chunkX, chunkZ);
+        switch (event) {
+            case REQUEST:
+                requests++;
+                // Same test as the recorded flag: was the chunk cached when it was requested
+                if (generator.getChunkCache().getChunk(chunkX, chunkZ) != null) replayHits++;
+                // Several players requesting one chunk share its future, exactly like ChunkLoader
+                final CompletableFuture<Chunk> future = pendingLoads.computeIfAbsent(chunkKey,
+                        key -> generator.generate(instance, chunkX, chunkZ));
+                final long requestNanos = System.nanoTime();
+                future.whenComplete((chunk, throwable) -> {
+                    pendingLoads.remove(chunkKey, future);
+                    if (throwable != null) {
+                        failed.incrementAndGet();
+                        return;
+                    }
+                    completed.incrementAndGet();
+                    final int index = latencyCount.getAndIncrement();
+                    if (index < latencies.length) latencies[index] = System.nanoTime() - requestNanos;
+                });
+                break;
+            case CANCEL:
+                cancels++;
+                final CompletableFuture<Chunk> pending = pendingLoads.remove(chunkKey);
+                if (pending != null) pending.cancel(false);
+                break;
+            case UNLOAD:
+                unloads++;
+                generator.getChunkCache().removeChunk(chunkX, chunkZ);
+                break;
+            case COMPLETE:
+                recordedCompletions++;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void drain() throws InterruptedException {
+        try {
+            CompletableFuture.allOf(pendingLoads.values().toArray(new CompletableFuture[0]))
+                    .get(DRAIN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (final TimeoutException e) {
+            System.err.println("replay: " + pendingLoads.size() + " chunks still pending after " + DRAIN_TIMEOUT_SECONDS + "s");
+        } catch (final Exception ignored) {
+            // Individual failures and cancellations are counted in whenComplete
+        }
+    }
+
+    public void report(final PrintStream out) {
+        final double seconds = elapsedNanos / 1e9;
+        final long[] sortedLatencies = Arrays.copyOf(latencies, Math.min(latencyCount.get(), latencies.length));
+        Arrays.sort(sortedLatencies);
+
+        out.printf("mode=%s trace=%.1fs replay=%.1fs%n", mode, traceMicros / 1e6, seconds);
+        out.printf("requests=%d completed=%d failed/cancelled=%d cancels=%d unloads=%d%n",
+                requests, completed.get(), failed.get(), cancels, unloads);
+        out.printf("throughput=%.1f chunks/s%n", completed.get() / seconds);
+        out.printf("latency p50=%.1fms p99=%.1fms max=%.1fms%n", percentileMillis(sortedLatencies, 0.50),
+                percentileMillis(sortedLatencies, 0.99), percentileMillis(sortedLatencies, 1.0));
+        out.printf("request cache hit rate replay=%.1f%% recorded=%.1f%% (recorded completions=%d)%n",
+                percent(replayHits, requests), percent(recordedHits, requests), recordedCompletions);
+        out.printf("cache=%dMiB/%dMiB evictions=%d%n", generator.getChunkCache().getCurrentBytes() >> 20,
+                generator.getChunkCache().getByteBudget() >> 20, generator.getChunkCache().getEvictionCount());
+    }
+
+    private static void waitUntil(final long startNanos, final long traceMicros) throws InterruptedException {
+        final long delayNanos = startNanos + traceMicros * 1000 - System.nanoTime();
+        if (delayNanos > 0) TimeUnit.NANOSECONDS.sleep(delayNanos);
+    }
+
+    private static long readVarLong(final DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += 7) {
+            final int b = in.read();
+            if (b < 0) throw new EOFException("truncated trace record");
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("malformed varint in trace");
+    }
+
+    private static boolean readFlag(final DataInputStream in) throws IOException {
+        final int b = in.read();
+        if (b < 0) throw new EOFException("truncated trace record");
+        return b != 0;
+    }
+
+    private static int unZigZag(final long value) {
+        final int zigZag = (int) value;
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    private static double percent(final long part, final long total) {
+        return total == 0 ? 0 : part * 100.0 / total;
+    }
+
+    private static double percentileMillis(final long[] sorted, final double percentile) {
+        if (sorted.length == 0) return 0;
+        final int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    private long getKey(final int chunkX, final int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+}
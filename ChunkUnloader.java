@@ -3,6 +3,8 @@ package com.example.worldgen; // Replace with your desired package
 import net.minestom.server.entity.Player;
 import net.minestom.server.instance.Instance;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.Executors;
@@ -15,12 +17,17 @@ public class ChunkUnloader {
     private final ChunkCache chunkCache;
     private final Set<Long> loadedChunks = new HashSet<>();
     private final ScheduledExecutorService unloadScheduler = Executors.newScheduledThreadPool(1);
+    private volatile ChunkTraceRecorder traceRecorder;
 
     public ChunkUnloader(final Instance instance, final ChunkCache chunkCache) {
         this.instance = instance;
         this.chunkCache = chunkCache;
     }
 
+    public void setTraceRecorder(final ChunkTraceRecorder traceRecorder) {
+        this.traceRecorder = traceRecorder;
+    }
+
     public void addLoadedChunk(final int chunkX, final int chunkZ) {
         loadedChunks.add(getKey(chunkX, chunkZ));
     }
@@ -30,19 +37,21 @@ public class ChunkUnloader {
     }
 
     public void unloadChunks(final Player player) {
-        final int playerChunkX = player.getPosition().chunkX();
-        final int playerChunkZ = player.getPosition().chunkZ();
-        final int viewDistance = player.getViewDistance();
-
-        unloadFarChunks(playerChunkX, playerChunkZ, viewDistance);
+        unloadChunks(Collections.singletonList(player));
     }
 
-    private void unloadFarChunks(final int playerChunkX, final int playerChunkZ, final int viewDistance) {
+    // Loaded chunks are shared, so with several players one is unloaded only once it is outside all of their views
+    public void unloadChunks(final Collection<? extends Player> players) {
         final Set<Long> chunksToUnload = new HashSet<>(loadedChunks);
 
-        for (int x = playerChunkX - viewDistance; x <= playerChunkX + viewDistance; x++) {
-            for (int z = playerChunkZ - viewDistance; z <= playerChunkZ + viewDistance; z++) {
-                chunksToUnload.remove(getKey(x, z));
+        for (final Player player : players) {
+            final int playerChunkX = player.getPosition().chunkX();
+            final int playerChunkZ = player.getPosition().chunkZ();
+            final int viewDistance = player.getViewDistance();
+            for (int x = playerChunkX - viewDistance; x <= playerChunkX + viewDistance; x++) {
+                for (int z = playerChunkZ - viewDistance; z <= playerChunkZ + viewDistance; z++) {
+                    chunksToUnload.remove(getKey(x, z));
+                }
             }
         }
 
@@ -57,6 +66,8 @@ public class ChunkUnloader {
         unloadScheduler.schedule(() -> {
             instance.unloadChunk(chunkX, chunkZ);
             chunkCache.removeChunk(chunkX, chunkZ);
+            final ChunkTraceRecorder recorder = traceRecorder;
+            if (recorder != null) recorder.record(ChunkTraceRecorder.Event.UNLOAD, null, chunkX, chunkZ);
 
         }, 30, TimeUnit.SECONDS);
     }
@@ -1,17 +1,26 @@
 package com.example.worldgen; // Replace with your desired package
 
+import net.minestom.server.coordinate.Point;
+import net.minestom.server.entity.Player;
 import net.minestom.server.instance.Chunk;
 import net.minestom.server.instance.ChunkGenerator;
 import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.Section;
 import net.minestom.server.instance.batch.ChunkBatch;
 import net.minestom.server.instance.block.Block;
-import net.minestom.server.instance.palette.Palette;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 public class FastWorldGenerator implements ChunkGenerator {
 
@@ -24,17 +33,67 @@ public class FastWorldGenerator implements ChunkGenerator {
     private static final float BIOME_NOISE_SCALE = 0.002f;
     private static final float NOISE_3D_SCALE = 0.02f;
     private static final float NOISE_3D_THRESHOLD = 0.2f;
+    private static final long DEFAULT_NOISE_CACHE_BYTES = 16L * 1024 * 1024;
+    private static final int MAX_POOLED_SECTION_BUFFERS = 1024;
+    private static final int SURFACE_BAND_DEPTH = 16;
+    private static final int DEFERRED_REALIZE_DISTANCE = 16;
+    private static final int DEFERRED_REALIZE_RADIUS = 2;
+    // Unpublished edge chunks are kept this long after their last window finishes, in case the player comes closer
+    private static final long PROTO_IDLE_NANOS = 30_000_000_000L;
+    private static final long PROTO_SWEEP_INTERVAL_NANOS = 1_000_000_000L;
+    // A published chunk's LIGHT window reaches FEATURES on its 3x3 and TERRAIN on its 5x5
+    private static final int PROTO_REACH = 2;
 
     private final FastNoiseLite noise;
     private final FastNoiseLite biomeNoise;
     private final FastNoiseLite noise3D;
     private final List<FeatureGenerator> featureGenerators;
-    private final ExecutorService chunkExecutor;
-    private final ExecutorService lightingExecutor;
+    private final Executor chunkExecutor;
+    private final Executor lightingExecutor;
+    private final boolean ownsExecutors;
     private final ChunkCache chunkCache;
     private final LightingEngine lightingEngine;
+    private final NoiseTileCache noiseTileCache;
+    private final Map<Long, ProtoChunk> protoChunks = new ConcurrentHashMap<>();
+    private final SectionBufferPool sectionBufferPool = new SectionBufferPool(MAX_POOLED_SECTION_BUFFERS);
+    private final SectionInterner sectionInterner = new SectionInterner(sectionBufferPool);
+    // Published chunks whose sections below this index are still placeholder fill
+    private final Map<Long, Integer> deferredSections = new ConcurrentHashMap<>();
+    // Chunks published with approximate light, waiting for the full pass
+    private final Set<Long> pendingRelights = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean relightScheduled = new AtomicBoolean();
+    private final AtomicLong lastProtoSweep = new AtomicLong(System.nanoTime());
+    private final AtomicInteger runningStages = new AtomicInteger();
+    private final List<UpdateListener> updateListeners = new CopyOnWriteArrayList<>();
+    private volatile BiomeRegistry biomeRegistry = BiomeRegistry.defaults();
+    // Set on the first generate call; the registry is fixed from then on
+    private volatile boolean generationStarted;
+    private volatile boolean lazySections;
+    private volatile boolean deferredLighting;
+
+    // The cache belongs to this generator: its sections and light stores are accounted against this interner
+    public FastWorldGenerator(final ChunkCache chunkCache, final int threadPoolSize) {
+        this(chunkCache, threadPoolSize, DEFAULT_NOISE_CACHE_BYTES);
+    }
+
+    public FastWorldGenerator(final ChunkCache chunkCache, final int threadPoolSize, final long noiseCacheBytes) {
+        this(chunkCache, noiseCacheBytes, Executors.newFixedThreadPool(threadPoolSize),
+                Executors.newFixedThreadPool(threadPoolSize), true); // Separate thread pool for lighting
+    }
+
+    // Runs on a JVM-wide scheduler; weight is this generator's share relative to other instances
+    public FastWorldGenerator(final ChunkCache chunkCache, final GenerationScheduler scheduler, final double weight) {
+        this(chunkCache, DEFAULT_NOISE_CACHE_BYTES, scheduler.newFlow("chunks", weight),
+                scheduler.newFlow("lighting", weight), false);
+    }
+
+    // Pool sizes are tuned at runtime by the executor; it is shared and shut down by its owner
+    public FastWorldGenerator(final ChunkCache chunkCache, final AdaptiveExecutor executor) {
+        this(chunkCache, DEFAULT_NOISE_CACHE_BYTES, executor.getChunkStage(), executor.getLightingStage(), false);
+    }
 
-    public FastWorldGenerator(final int cacheCapacity, final int threadPoolSize) {
+    private FastWorldGenerator(final ChunkCache chunkCache, final long noiseCacheBytes, final Executor chunkExecutor,
+                               final Executor lightingExecutor, final boolean ownsExecutors) {
         noise = new FastNoiseLite();
         noise.SetNoiseType(FastNoiseLite.NoiseType.Perlin);
         noise.SetSeed((int) (Math.random() * Integer.MAX_VALUE));
@@ -50,111 +109,443 @@ public class FastWorldGenerator implements ChunkGenerator {
         noise3D.SetSeed((int) (Math.random() * Integer.MAX_VALUE));
         noise3D.SetFrequency(NOISE_3D_SCALE);
 
+        noiseTileCache = new NoiseTileCache(noise, biomeNoise, noiseCacheBytes); // Shared across generator threads
+
         final long seed = ThreadLocalRandom.current().nextLong();
+        featureGenerators = new ArrayList<>();
         featureGenerators.add(new TreeGenerator(seed));
         featureGenerators.add(new OreGenerator(seed, Block.STONE));
 
-        chunkExecutor = Executors.newFixedThreadPool(threadPoolSize);
-        lightingExecutor = Executors.newFixedThreadPool(threadPoolSize); // Separate thread pool
-        chunkCache = new ChunkCache(cacheCapacity);
+        this.chunkExecutor = chunkExecutor;
+        this.lightingExecutor = lightingExecutor;
+        this.ownsExecutors = ownsExecutors;
+        this.chunkCache = chunkCache;
+        chunkCache.setSectionInterner(sectionInterner);
+        chunkCache.setRemovalListener(this::onChunkRemoved);
         lightingEngine = new LightingEngine(chunkCache); // Pass ChunkCache to LightingEngine
 
     }
 
     @Override
     public @NotNull CompletableFuture<Chunk> generate(@NotNull final Instance instance, final int chunkX, final int chunkZ) {
-        final Chunk cachedChunk = chunkCache.getChunk(chunkX, chunkZ);
-        if (cachedChunk != null) {
-            return CompletableFuture.completedFuture(cachedChunk);
+        return generate(instance, chunkX, chunkZ, null);
+    }
+
+    // owner (e.g. a player's UUID) is charged for the stages this request starts; on a GenerationScheduler owners
+    // take turns, so one player's backlog cannot starve another's. Stages already started by others are shared.
+    public CompletableFuture<Chunk> generate(final Instance instance, final int chunkX, final int chunkZ, final Object owner) {
+        if (!generationStarted) startGeneration();
+        sweepProtoChunks();
+        while (true) {
+            final Chunk cachedChunk = chunkCache.getChunk(chunkX, chunkZ);
+            if (cachedChunk != null) return CompletableFuture.completedFuture(cachedChunk);
+
+            final ProtoChunk proto = retainProto(chunkX, chunkZ);
+            // Null means it was published after the cache check; read it again, or regenerate it if already evicted
+            if (proto == null) continue;
+            final CompletableFuture<ProtoChunk> lit = startStage(instance, proto, ChunkStatus.LIGHT, owner);
+            lit.whenComplete((ignored, throwable) -> proto.release());
+            return lit.thenApply(ProtoChunk::getChunk);
+        }
+    }
+
+    // Only before the first chunk is generated; chunks from different registries would not line up at borders
+    public synchronized void setBiomeRegistry(final BiomeRegistry biomeRegistry) {
+        if (generationStarted) throw new IllegalStateException("biome registry must be set before the first chunk is generated");
+        this.biomeRegistry = biomeRegistry;
+    }
+
+    // Only the surface band is generated up front; deeper sections start as stone placeholders
+    public void setLazySections(final boolean lazySections) {
+        this.lazySections = lazySections;
+    }
+
+    // Chunks complete with heightmap skylight; full lighting follows asynchronously and is announced to the
+    // update listeners, which resend it to the players they sent the chunk to (see ChunkLoader)
+    public void setDeferredLighting(final boolean deferredLighting) {
+        this.deferredLighting = deferredLighting;
+    }
+
+    public void addUpdateListener(final UpdateListener listener) {
+        updateListeners.add(listener);
+    }
+
+    public void removeUpdateListener(final UpdateListener listener) {
+        updateListeners.remove(listener);
+    }
+
+    public ChunkCache getChunkCache() {
+        return chunkCache;
+    }
+
+    private synchronized void startGeneration() {
+        generationStarted = true;
+    }
+
+    // --- Status Pipeline ---
+    // TERRAIN runs per chunk with no dependencies, FEATURES waits for the 3x3 neighborhood at TERRAIN,
+    // LIGHT waits for the 3x3 neighborhood at FEATURES so no neighbor can write into a lit chunk.
+    // Counts stages in flight, so idle work can tell when the pools have nothing better to do
+    private CompletableFuture<ProtoChunk> startStage(final Instance instance, final ProtoChunk proto, final ChunkStatus status,
+                                                     final Object owner) {
+        return proto.stage(status, p -> {
+            runningStages.incrementAndGet();
+            return runStage(instance, p, status, owner).whenComplete((ignored, throwable) -> runningStages.decrementAndGet());
+        });
+    }
+
+    private CompletableFuture<ProtoChunk> runStage(final Instance instance, final ProtoChunk proto, final ChunkStatus status,
+                                                   final Object owner) {
+        switch (status) {
+            case TERRAIN:
+                return supplyAsync(() -> {
+                    generateTerrain(proto);
+                    return proto;
+                }, chunkExecutor, owner);
+            case FEATURES:
+                return withNeighbors(instance, proto, ChunkStatus.TERRAIN, region -> {
+                    decorate(region);
+                    return proto;
+                }, chunkExecutor, owner);
+            case LIGHT:
+                // With deferred lighting publishing is cheap, so it stays on the chunk pool off the lighting queue
+                return withNeighbors(instance, proto, ChunkStatus.FEATURES, region -> {
+                    publish(instance, proto);
+                    return proto;
+                }, deferredLighting ? chunkExecutor : lightingExecutor, owner);
+            default:
+                return CompletableFuture.completedFuture(proto);
         }
+    }
 
-        return CompletableFuture.supplyAsync(() -> {
-            final Chunk chunk = instance.getChunkSupplier().createChunk(instance, chunkX, chunkZ);
-            // Generate sections in parallel
-            final List<CompletableFuture<Section>> sectionFutures = new ArrayList<>();
-            for (int sectionY = 0; sectionY < 16; sectionY++) {
-                final int finalSectionY = sectionY;
-                sectionFutures.add(CompletableFuture.supplyAsync(() -> generateSection(chunkX, chunkZ, finalSectionY), chunkExecutor));
+    // Runs work on the 3x3 window once every neighbor reaches status; neighbors stay retained until the work ends
+    private CompletableFuture<ProtoChunk> withNeighbors(final Instance instance, final ProtoChunk proto, final ChunkStatus status,
+                                                        final Function<WorldRegion, ProtoChunk> work, final Executor executor,
+                                                        final Object owner) {
+        final ProtoChunk[] retained = new ProtoChunk[9];
+        final List<CompletableFuture<ProtoChunk>> neighborFutures = new ArrayList<>(9);
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                final ProtoChunk neighbor = retainProto(proto.getChunkX() + dx, proto.getChunkZ() + dz);
+                retained[neighborFutures.size()] = neighbor;
+                // Already finished and published; neighbors see it as read-only (null in their region)
+                neighborFutures.add(neighbor == null ? CompletableFuture.completedFuture(null)
+                        : startStage(instance, neighbor, status, owner));
             }
+        }
 
-            // Combine the results of all section generation tasks
-            final CompletableFuture<Void> allSectionsFuture = CompletableFuture.allOf(sectionFutures.toArray(new CompletableFuture[0]));
-
-            // When all sections are complete, set them in the chunk and calculate lighting
-            allSectionsFuture.thenRunAsync(() -> {
-                for (int sectionY = 0; sectionY < sectionFutures.size(); sectionY++) {
-                    try {
-                        final Section section = sectionFutures.get(sectionY).get();
-                        chunk.getSections().set(sectionY, section);
-                    } catch (InterruptedException | ExecutionException e) {
-                        e.printStackTrace(); // Handle exceptions appropriately
+        final CompletableFuture<ProtoChunk> result = CompletableFuture.allOf(neighborFutures.toArray(new CompletableFuture[0]))
+                .thenCompose(ignored -> supplyAsync(() -> {
+                    final ProtoChunk[] neighbors = new ProtoChunk[9];
+                    for (int i = 0; i < neighbors.length; i++) {
+                        neighbors[i] = neighborFutures.get(i).join();
                     }
+                    return work.apply(new WorldRegion(proto.getChunkX(), proto.getChunkZ(), neighbors));
+                }, executor, owner));
+        result.whenComplete((ignored, throwable) -> {
+            for (final ProtoChunk neighbor : retained) {
+                if (neighbor != null) neighbor.release();
+            }
+        });
+        return result;
+    }
+
+    // --- Proto Chunk Lifetime ---
+    // Returns the in-progress chunk retained for the caller, or null if it is already published
+    private ProtoChunk retainProto(final int chunkX, final int chunkZ) {
+        final long key = getKey(chunkX, chunkZ);
+        while (true) {
+            ProtoChunk protoChunk = protoChunks.get(key);
+            if (protoChunk == null) {
+                if (chunkCache.getChunk(chunkX, chunkZ) != null) return null;
+                protoChunk = protoChunks.computeIfAbsent(key, k -> new ProtoChunk(chunkX, chunkZ));
+            }
+            if (protoChunk.retain()) return protoChunk;
+            protoChunks.remove(key, protoChunk); // Retired concurrently; start over with a fresh one
+        }
+    }
+
+    // Edge chunks of a window are never published themselves; drop the ones idle past PROTO_IDLE_NANOS
+    private void sweepProtoChunks() {
+        final long now = System.nanoTime();
+        final long last = lastProtoSweep.get();
+        if (now - last < PROTO_SWEEP_INTERVAL_NANOS || !lastProtoSweep.compareAndSet(last, now)) return;
+        for (final ProtoChunk protoChunk : protoChunks.values()) {
+            retireProto(protoChunk, now, PROTO_IDLE_NANOS);
+        }
+    }
+
+    // A dropped edge chunk regenerates from scratch if requested again, without spill-over from published neighbors
+    private void retireProto(final ProtoChunk protoChunk, final long now, final long idleNanos) {
+        if (!protoChunk.tryRetire(now, idleNanos)) return;
+        protoChunks.remove(getKey(protoChunk.getChunkX(), protoChunk.getChunkZ()), protoChunk);
+        releaseBlocks(protoChunk, ProtoChunk.SECTION_COUNT);
+    }
+
+    // Called by the cache on unload or eviction; edge chunks nothing else is waiting on go with it
+    private void onChunkRemoved(final int chunkX, final int chunkZ) {
+        // A regenerated chunk registers its own placeholders again when it is published
+        deferredSections.remove(getKey(chunkX, chunkZ));
+        pendingRelights.remove(getKey(chunkX, chunkZ));
+        final long now = System.nanoTime();
+        for (int x = chunkX - PROTO_REACH; x <= chunkX + PROTO_REACH; x++) {
+            for (int z = chunkZ - PROTO_REACH; z <= chunkZ + PROTO_REACH; z++) {
+                final ProtoChunk protoChunk = protoChunks.get(getKey(x, z));
+                if (protoChunk != null) retireProto(protoChunk, now, 0);
+            }
+        }
+    }
+
+    private void generateTerrain(final ProtoChunk proto) {
+        final int firstSection = lazySections ? getSurfaceBandBottom(proto.getChunkX(), proto.getChunkZ()) : 0;
+        for (int sectionY = 0; sectionY < firstSection; sectionY++) {
+            final short[] placeholder = sectionBufferPool.acquire();
+            Arrays.fill(placeholder, (short) STONE_ID);
+            proto.setBlocks(sectionY, placeholder);
+        }
+        for (int sectionY = firstSection; sectionY < ProtoChunk.SECTION_COUNT; sectionY++) {
+            proto.setBlocks(sectionY, generateSection(proto.getChunkX(), proto.getChunkZ(), sectionY));
+        }
+        proto.setFirstGeneratedSection(firstSection);
+    }
+
+    // Lowest section any column (or a nearby cave mouth) can reach, from a bound on the blended height
+    private int getSurfaceBandBottom(final int chunkX, final int chunkZ) {
+        final NoiseTileCache.Tile tile = noiseTileCache.getTile(chunkX, chunkZ);
+        float minNoise = 0;
+        for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
+            for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
+                minNoise = Math.min(minNoise, tile.getHeightNoise(chunkX * Chunk.CHUNK_SIZE_X + x, chunkZ * Chunk.CHUNK_SIZE_Z + z));
+            }
+        }
+        final int lowestSurface = (int) Math.floor(BASE_HEIGHT + minNoise * biomeRegistry.getMaxHeightVariation());
+        return Math.max(0, (lowestSurface - SURFACE_BAND_DEPTH) / Chunk.CHUNK_SECTION_SIZE);
+    }
+
+    // --- Deferred Sections ---
+    // Generates the placeholder sections of a published chunk, relights it and announces it to the update listeners
+    public CompletableFuture<Void> realizeSections(final int chunkX, final int chunkZ) {
+        final Integer firstGenerated = deferredSections.remove(getKey(chunkX, chunkZ));
+        if (firstGenerated == null) return CompletableFuture.completedFuture(null);
+
+        // Background work with no owner; on a shared scheduler it takes its turn like any player
+        return supplyAsync(() -> {
+            final ProtoChunk proto = new ProtoChunk(chunkX, chunkZ);
+            for (int sectionY = 0; sectionY < firstGenerated; sectionY++) {
+                proto.setBlocks(sectionY, generateSection(chunkX, chunkZ, sectionY));
+            }
+            // Only this chunk is writable; veins reaching into neighbors or generated sections are clipped
+            final ProtoChunk[] neighbors = new ProtoChunk[9];
+            neighbors[4] = proto;
+            final WorldRegion region = new WorldRegion(chunkX, chunkZ, neighbors);
+            final Biome biome = getChunkBiome(chunkX, chunkZ);
+            for (final FeatureGenerator generator : featureGenerators) {
+                if (!biome.hasFeature(generator.getName())) continue;
+                for (int sectionY = 0; sectionY < firstGenerated; sectionY++) {
+                    generator.generateDeferred(region, chunkX, chunkZ, sectionY);
                 }
+            }
+            return proto;
+        }, chunkExecutor, null).thenCompose(proto -> supplyAsync(() -> {
+            final Chunk chunk = chunkCache.getChunk(chunkX, chunkZ);
+            if (chunk == null) {
+                releaseBlocks(proto, firstGenerated); // Evicted meanwhile; it regenerates from scratch
+                return null;
+            }
+            // Copy-on-write: new sections are built and lit privately, then swapped in by reference
+            final Section[] realized = new Section[firstGenerated];
+            for (int sectionY = 0; sectionY < firstGenerated; sectionY++) {
+                realized[sectionY] = sectionInterner.intern(proto.getBlocks(sectionY));
+            }
+            releaseBlocks(proto, firstGenerated);
+            // Serialized with block writes and a deferred relight so neither swaps in light computed for other sections
+            synchronized (chunk) {
+                final Section[] sections = chunk.getSections().toArray(new Section[0]);
+                for (int sectionY = 0; sectionY < firstGenerated; sectionY++) {
+                    // Generation may have written ores or trees into a placeholder; only edits after publication are kept
+                    if (!isSectionEdited(chunk, sectionY)) sections[sectionY] = realized[sectionY];
+                }
+                // Light stores above the new sections are shared with the published array, never copied
+                final LightStore[] light = sectionInterner.internLight(lightingEngine.lightSections(sections, chunkX, chunkZ,
+                        firstGenerated, chunkCache.getLight(chunkX, chunkZ)));
 
-                // --- LIGHTING ---
-                lightingEngine.lightChunk(instance, chunkX, chunkZ);
+                for (int sectionY = 0; sectionY < firstGenerated; sectionY++) {
+                    chunk.getSections().set(sectionY, sections[sectionY]);
+                }
+                chunkCache.updateLight(chunkX, chunkZ, light);
+            }
+            chunkCache.invalidatePackets(chunkX, chunkZ); // Re-sizes the entry: placeholders were shared, realized sections may not be
+            // Re-encoded from the cache with the new light, to the players ChunkLoader sent the old copy to
+            notifyUpdated(chunkX, chunkZ, true);
+            return null;
+        }, lightingExecutor, null));
+    }
 
-                chunkCache.putChunk(chunkX, chunkZ, chunk); // Add to cache AFTER lighting
-            }, lightingExecutor).join(); // Use lightingExecutor and .join()
+    // Scheduler flows own the futures they return, so a scheduler shutdown fails pending stages instead of stranding them
+    private static <T> CompletableFuture<T> supplyAsync(final Supplier<T> supplier, final Executor executor, final Object owner) {
+        if (executor instanceof GenerationScheduler.Flow) return ((GenerationScheduler.Flow) executor).supply(owner, supplier);
+        return CompletableFuture.supplyAsync(supplier, executor);
+    }
 
-            return chunk;
+    // Realizes deferred sections near a player who is heading below the surface band
+    public void realizeSectionsNear(final Player player) {
+        final Point position = player.getPosition();
+        for (int x = position.chunkX() - DEFERRED_REALIZE_RADIUS; x <= position.chunkX() + DEFERRED_REALIZE_RADIUS; x++) {
+            for (int z = position.chunkZ() - DEFERRED_REALIZE_RADIUS; z <= position.chunkZ() + DEFERRED_REALIZE_RADIUS; z++) {
+                final Integer firstGenerated = deferredSections.get(getKey(x, z));
+                if (firstGenerated != null && position.y() < firstGenerated * Chunk.CHUNK_SECTION_SIZE + DEFERRED_REALIZE_DISTANCE) {
+                    realizeSections(x, z);
+                }
+            }
+        }
+    }
 
-        }, chunkExecutor);
+    // Uses spare capacity: realizes up to maxChunks deferred chunks while no generation stage or relight is pending
+    public int realizeIdleSections(final int maxChunks) {
+        if (runningStages.get() > 0 || !pendingRelights.isEmpty()) return 0;
+        int realized = 0;
+        for (final Long key : deferredSections.keySet()) {
+            if (realized >= maxChunks) break;
+            realizeSections((int) (key >> 32), (int) (long) key);
+            realized++;
+        }
+        return realized;
     }
 
+    private static boolean isSectionEdited(final Chunk chunk, final int sectionY) {
+        return chunk instanceof InternedChunk && ((InternedChunk) chunk).isSectionEdited(sectionY);
+    }
 
-    private Section generateSection(final int chunkX, final int chunkZ, final int sectionY) {
-        final Section section = new Section();
-        final Palette palette = section.blockPalette();
+    private void releaseBlocks(final ProtoChunk proto, final int sectionCount) {
+        for (int sectionY = 0; sectionY < sectionCount; sectionY++) {
+            final short[] blocks = proto.getBlocks(sectionY);
+            if (blocks != null) sectionBufferPool.release(blocks);
+            proto.setBlocks(sectionY, null);
+        }
+    }
 
-        final float[][][] biomeNoiseValues = precalculateBiomeNoise(chunkX, chunkZ);
+    private void decorate(final WorldRegion region) {
+        // Feature lists are per biome, taken at the chunk center
+        final Biome biome = getChunkBiome(region.getCenterChunkX(), region.getCenterChunkZ());
+        region.lock();
+        try {
+            for (final FeatureGenerator generator : featureGenerators) {
+                if (!biome.hasFeature(generator.getName())) continue;
+                generator.generate(region, region.getCenterChunkX(), region.getCenterChunkZ());
+            }
+        } finally {
+            region.unlock();
+        }
+    }
 
-        // Create a list of futures for column generation
-        final List<CompletableFuture<Void>> columnFutures = new ArrayList<>();
+    private void publish(final Instance instance, final ProtoChunk proto) {
+        final int chunkX = proto.getChunkX();
+        final int chunkZ = proto.getChunkZ();
+        final LightStore[] approximateLight = deferredLighting ? lightingEngine.approximateLight(proto) : null;
+        final Section[] sections = new Section[ProtoChunk.SECTION_COUNT];
+        for (int sectionY = 0; sectionY < ProtoChunk.SECTION_COUNT; sectionY++) {
+            // Neighbors are all past FEATURES, so nothing writes to this buffer any more
+            final short[] blocks = proto.getBlocks(sectionY);
+            sections[sectionY] = sectionInterner.intern(blocks);
+            proto.setBlocks(sectionY, null);
+            sectionBufferPool.release(blocks);
+        }
 
-        for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
-            for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
-                final int finalX = x;
-                final int finalZ = z;
-                columnFutures.add(CompletableFuture.runAsync(() -> {
-                    generateColumn(palette, biomeNoiseValues, chunkX, chunkZ, sectionY, finalX, finalZ);
-                }, chunkExecutor));
+        // --- LIGHTING --- (on the private sections, before any other thread can reach them)
+        final LightStore[] light = sectionInterner.internLight(
+                approximateLight != null ? approximateLight : lightingEngine.lightSections(sections, chunkX, chunkZ));
+
+        // Built directly rather than through the instance's supplier: only InternedChunk un-shares sections on write
+        final Chunk chunk = new InternedChunk(instance, chunkX, chunkZ, sectionInterner, chunkCache);
+        for (int sectionY = 0; sectionY < ProtoChunk.SECTION_COUNT; sectionY++) {
+            chunk.getSections().set(sectionY, sections[sectionY]);
+        }
+        proto.setChunk(chunk);
+        if (proto.getFirstGeneratedSection() > 0) {
+            deferredSections.put(getKey(chunkX, chunkZ), proto.getFirstGeneratedSection());
+        }
+
+        // Publication point: the finished chunk becomes visible to the cache, neighbors' lighting and
+        // (through the completing future) the instance. Later writes (block changes, realized sections,
+        // relighting) hold the chunk's monitor, which the cache also takes while encoding and sizing it
+        chunkCache.putChunk(chunkX, chunkZ, chunk, light);
+        chunkCache.encodePackets(chunkX, chunkZ);
+        protoChunks.remove(getKey(chunkX, chunkZ), proto);
+        if (approximateLight != null) scheduleRelight(chunkX, chunkZ);
+    }
+
+    // --- Deferred Lighting ---
+    private void scheduleRelight(final int chunkX, final int chunkZ) {
+        pendingRelights.add(getKey(chunkX, chunkZ));
+        if (relightScheduled.compareAndSet(false, true)) {
+            lightingExecutor.execute(this::drainRelights);
+        }
+    }
+
+    // One task drains everything queued so far instead of one task per chunk; each chunk is still lit on its own
+    private void drainRelights() {
+        try {
+            for (final Long key : pendingRelights) {
+                if (pendingRelights.remove(key)) relight((int) (key >> 32), (int) (long) key);
             }
+        } finally {
+            relightScheduled.set(false);
         }
+        // Chunks added after the iterator passed them but before the flag was cleared
+        if (!pendingRelights.isEmpty() && relightScheduled.compareAndSet(false, true)) {
+            lightingExecutor.execute(this::drainRelights);
+        }
+    }
 
-        // Wait for all column generation tasks to complete
-        CompletableFuture.allOf(columnFutures.toArray(new CompletableFuture[0])).join();
-
-        // Feature Generation (Parallel)
-        final List<CompletableFuture<Void>> featureFutures = new ArrayList<>();
-        for (final FeatureGenerator generator : featureGenerators) {
-            final int finalChunkX = chunkX;
-            final int finalChunkZ = chunkZ;
-            final int finalSectionY = sectionY;
-            featureFutures.add(CompletableFuture.runAsync(() -> {
-                generator.generate(section, finalChunkX, finalChunkZ, finalSectionY);
-            }, chunkExecutor));
+    private void relight(final int chunkX, final int chunkZ) {
+        final Chunk chunk = chunkCache.getChunk(chunkX, chunkZ);
+        if (chunk == null) return; // Evicted; it is lit in full when it regenerates
+
+        synchronized (chunk) {
+            final LightStore[] light = sectionInterner.internLight(lightingEngine.lightSections(chunk.getSections().toArray(new Section[0]), chunkX, chunkZ));
+            chunkCache.updateLight(chunkX, chunkZ, light);
         }
-        CompletableFuture.allOf(featureFutures.toArray(new CompletableFuture[0])).join();
+        notifyUpdated(chunkX, chunkZ, false);
+    }
 
-        return section;
+    private void notifyUpdated(final int chunkX, final int chunkZ, final boolean blocksChanged) {
+        for (final UpdateListener listener : updateListeners) {
+            listener.onChunkUpdated(chunkX, chunkZ, blocksChanged);
+        }
+    }
+
+    private short[] generateSection(final int chunkX, final int chunkZ, final int sectionY) {
+        final short[] blocks = sectionBufferPool.acquire();
+
+        final NoiseTileCache.Tile tile = noiseTileCache.getTile(chunkX, chunkZ);
+        final Biome[][] biomes = precalculateBiomes(biomeRegistry, tile, chunkX, chunkZ);
+
+        for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
+            for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
+                generateColumn(blocks, tile, biomes, chunkX, chunkZ, sectionY, x, z);
+            }
+        }
+        return blocks;
     }
 
-    private void generateColumn(final Palette palette, final float[][][] biomeNoiseValues,
+    private void generateColumn(final short[] blocks, final NoiseTileCache.Tile tile, final Biome[][] biomes,
                                 final int chunkX, final int chunkZ, final int sectionY, final int x, final int z) {
         final int worldX = chunkX * Chunk.CHUNK_SIZE_X + x;
         final int worldZ = chunkZ * Chunk.CHUNK_SIZE_Z + z;
 
-        // Biome Selection and Blending
-        final Biome primaryBiome = getPrimaryBiome(biomeNoiseValues, x, z);
+        // Biome Selection and Blending (biomes[x + 1][z + 1] is this column, so it doubles as biome11)
+        final Biome primaryBiome = biomes[x + 1][z + 1];
+        final Biome biome00 = biomes[x][z];
+        final Biome biome10 = biomes[x + 1][z];
+        final Biome biome01 = biomes[x][z + 1];
         final float biomeHeightVariation;
         final short topBlock;
         final short underBlock;
 
-        if (isBiomeEdge(biomeNoiseValues, x, z)) {
-            biomeHeightVariation = calculateBlendedHeightVariation(biomeNoiseValues, x, z);
-            topBlock = calculateBlendedTopBlock(biomeNoiseValues, x, z);
-            underBlock = calculateBlendedUnderBlock(biomeNoiseValues, x, z);
+        if (biome00 != primaryBiome || biome10 != primaryBiome || biome01 != primaryBiome) {
+            biomeHeightVariation = blendHeightVariation(biome00, biome10, biome01, primaryBiome, x, z);
+            topBlock = mostCommon(biome00.topBlock, biome10.topBlock, biome01.topBlock, primaryBiome.topBlock);
+            underBlock = mostCommon(biome00.underBlock, biome10.underBlock, biome01.underBlock, primaryBiome.underBlock);
         } else {
             biomeHeightVariation = primaryBiome.heightVariation;
             topBlock = primaryBiome.topBlock;
@@ -162,7 +553,7 @@ public class FastWorldGenerator implements ChunkGenerator {
         }
 
         // Terrain Generation
-        final float noiseValue = noise.GetNoise(worldX, worldZ);
+        final float noiseValue = tile.getHeightNoise(worldX, worldZ);
         int height = (int) (BASE_HEIGHT + noiseValue * biomeHeightVariation);
         height = Math.max(0, Math.min(height, 255));
 
@@ -175,53 +566,41 @@ public class FastWorldGenerator implements ChunkGenerator {
 
             if (!isCave) {
                 if (worldY < height - 3) {
-                    palette.set(x, y, z, STONE_ID);
+                    blocks[SectionBufferPool.index(x, y, z)] = (short) STONE_ID;
                 } else if (worldY < height - 1) {
-                    palette.set(x, y, z, underBlock);
+                    blocks[SectionBufferPool.index(x, y, z)] = underBlock;
                 } else if (worldY < height) {
-                    palette.set(x, y, z, topBlock);
+                    blocks[SectionBufferPool.index(x, y, z)] = topBlock;
                 }
             }
         }
     }
 
     // --- Biome Helper Methods ---
-    private float[][][] precalculateBiomeNoise(final int chunkX, final int chunkZ) {
-        final float[][][] biomeNoiseValues = new float[Chunk.CHUNK_SIZE_X + 2][1][Chunk.CHUNK_SIZE_Z + 2];
+    // Biomes of the chunk plus a one-block apron, looked up once per section instead of five times per column
+    private Biome[][] precalculateBiomes(final BiomeRegistry registry, final NoiseTileCache.Tile tile, final int chunkX, final int chunkZ) {
+        final Biome[][] biomes = new Biome[Chunk.CHUNK_SIZE_X + 2][Chunk.CHUNK_SIZE_Z + 2];
         for (int x = -1; x < Chunk.CHUNK_SIZE_X + 1; x++) {
             for (int z = -1; z < Chunk.CHUNK_SIZE_Z + 1; z++) {
                 final int worldX = chunkX * Chunk.CHUNK_SIZE_X + x;
                 final int worldZ = chunkZ * Chunk.CHUNK_SIZE_Z + z;
-                biomeNoiseValues[x + 1][0][z + 1] = biomeNoise.GetNoise(worldX, worldZ);
+                biomes[x + 1][z + 1] = registry.getBiome(tile.getBiomeNoise(worldX, worldZ));
             }
         }
-        return biomeNoiseValues;
+        return biomes;
     }
 
-    private Biome getPrimaryBiome(final float[][][] biomeNoiseValues, final int x, final int z) {
-        final float centerNoise = biomeNoiseValues[x + 1][0][z + 1];
-        return getBiomeFromNoise(centerNoise);
+    private Biome getChunkBiome(final int chunkX, final int chunkZ) {
+        final int worldX = chunkX * Chunk.CHUNK_SIZE_X + Chunk.CHUNK_SIZE_X / 2;
+        final int worldZ = chunkZ * Chunk.CHUNK_SIZE_Z + Chunk.CHUNK_SIZE_Z / 2;
+        return biomeRegistry.getBiome(noiseTileCache.getTile(chunkX, chunkZ).getBiomeNoise(worldX, worldZ));
     }
 
-    private boolean isBiomeEdge(final float[][][] biomeNoiseValues, final int x, final int z) {
-        final float n00 = biomeNoiseValues[x][0][z];
-        final float n10 = biomeNoiseValues[x + 1][0][z];
-        final float n01 = biomeNoiseValues[x][0][z + 1];
-        final float n11 = biomeNoiseValues[x + 1][0][z + 1];
-        final Biome primaryBiome = getPrimaryBiome(biomeNoiseValues, x, z);
-        return getBiomeFromNoise(n00) != primaryBiome || getBiomeFromNoise(n10) != primaryBiome ||
-                getBiomeFromNoise(n01) != primaryBiome || getBiomeFromNoise(n11) != primaryBiome;
-    }
-
-    private float calculateBlendedHeightVariation(final float[][][] biomeNoiseValues, final int x, final int z) {
+    private static float blendHeightVariation(final Biome biome00, final Biome biome10, final Biome biome01, final Biome biome11,
+                                              final int x, final int z) {
         final float blendFactorX = (x / (float) Chunk.CHUNK_SIZE_X);
         final float blendFactorZ = (z / (float) Chunk.CHUNK_SIZE_Z);
 
-        final Biome biome00 = getBiomeFromNoise(biomeNoiseValues[x][0][z]);
-        final Biome biome10 = getBiomeFromNoise(biomeNoiseValues[x + 1][0][z]);
-        final Biome biome01 = getBiomeFromNoise(biomeNoiseValues[x][0][z + 1]);
-        final Biome biome11 = getBiomeFromNoise(biomeNoiseValues[x + 1][0][z + 1]);
-
         return (
                 biome00.heightVariation * (1 - blendFactorX) * (1 - blendFactorZ) +
                         biome10.heightVariation * blendFactorX * (1 - blendFactorZ) +
@@ -230,56 +609,19 @@ public class FastWorldGenerator implements ChunkGenerator {
         );
     }
 
-    private short calculateBlendedTopBlock(final float[][][] biomeNoiseValues, final int x, final int z) {
-        final int[] topBlockCounts = new int[65536];
-        final Biome biome00 = getBiomeFromNoise(biomeNoiseValues[x][0][z]);
-        final Biome biome10 = getBiomeFromNoise(biomeNoiseValues[x + 1][0][z]);
-        final Biome biome01 = getBiomeFromNoise(biomeNoiseValues[x][0][z + 1]);
-        final Biome biome11 = getBiomeFromNoise(biomeNoiseValues[x + 1][0][z + 1]);
-        topBlockCounts[biome00.topBlock]++;
-        topBlockCounts[biome10.topBlock]++;
-        topBlockCounts[biome01.topBlock]++;
-        topBlockCounts[biome11.topBlock]++;
-        short topBlock = 0;
-        int maxTopCount = 0;
-        for (int i = 0; i < topBlockCounts.length; i++) {
-            if (topBlockCounts[i] > maxTopCount) {
-                maxTopCount = topBlockCounts[i];
-                topBlock = (short) i;
+    // Most frequent of the four corner blocks; ties go to the lowest state id
+    private static short mostCommon(final short a, final short b, final short c, final short d) {
+        final short[] candidates = {a, b, c, d};
+        short best = 0;
+        int bestCount = 0;
+        for (final short candidate : candidates) {
+            final int count = (candidate == a ? 1 : 0) + (candidate == b ? 1 : 0) + (candidate == c ? 1 : 0) + (candidate == d ? 1 : 0);
+            if (count > bestCount || (count == bestCount && (candidate & 0xFFFF) < (best & 0xFFFF))) {
+                best = candidate;
+                bestCount = count;
             }
         }
-        return topBlock;
-    }
-
-    private short calculateBlendedUnderBlock(final float[][][] biomeNoiseValues, final int x, final int z) {
-        final int[] underBlockCounts = new int[65536];
-        final Biome biome00 = getBiomeFromNoise(biomeNoiseValues[x][0][z]);
-        final Biome biome10 = getBiomeFromNoise(biomeNoiseValues[x + 1][0][z]);
-        final Biome biome01 = getBiomeFromNoise(biomeNoiseValues[x][0][z + 1]);
-        final Biome biome11 = getBiomeFromNoise(biomeNoiseValues[x + 1][0][z + 1]);
-        underBlockCounts[biome00.underBlock]++;
-        underBlockCounts[biome10.underBlock]++;
-        underBlockCounts[biome01.underBlock]++;
-        underBlockCounts[biome11.underBlock]++;
-        short underBlock = 0;
-        int maxUnderCount = 0;
-        for (int i = 0; i < underBlockCounts.length; i++) {
-            if (underBlockCounts[i] > maxUnderCount) {
-                maxUnderCount = underBlockCounts[i];
-                underBlock = (short) i;
-            }
-        }
-        return underBlock;
-    }
-
-    private Biome getBiomeFromNoise(final float noiseValue) {
-        if (noiseValue < -0.3) {
-            return Biome.DESERT;
-        } else if (noiseValue < 0.3) {
-            return Biome.PLAINS;
-        } else {
-            return Biome.FOREST;
-        }
+        return best;
     }
 
     @Override
@@ -292,8 +634,26 @@ public class FastWorldGenerator implements ChunkGenerator {
         // Not used, section based generation.
     }
 
+    private long getKey(final int chunkX, final int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    public interface UpdateListener {
+        // Called from generator threads after a published chunk's light (or, if blocksChanged, its blocks) changed
+        void onChunkUpdated(int chunkX, int chunkZ, boolean blocksChanged);
+    }
+
     public void shutdown() {
-        chunkExecutor.shutdown();
-        lightingExecutor.shutdown();
+        // A shared scheduler outlives any single generator and is shut down by its owner
+        if (ownsExecutors) {
+            ((ExecutorService) chunkExecutor).shutdown();
+            ((ExecutorService) lightingExecutor).shutdown();
+        }
+        noiseTileCache.clear();
+        protoChunks.clear();
+        deferredSections.clear();
+        pendingRelights.clear();
+        sectionInterner.clear();
+        chunkCache.shutdown();
     }
 }
\ No newline at end of file
@@ -1,6 +1,4 @@
 package com.example.worldgen; // Replace with your desired package
-import net.minestom.server.instance.Section;
-import net.minestom.server.instance.palette.Palette;
 
 import java.util.Random;
 
@@ -12,11 +10,19 @@ public abstract class FeatureGenerator {
         this.random = new Random(seed);
     }
 
-    public abstract void generate(final Section section, final int chunkX, final int chunkZ, final int sectionY);
+    // Name biomes list in their feature lists to enable this generator
+    public abstract String getName();
 
-    protected void safeSetBlock(final Palette palette, final int x, final int y, final int z, final int blockStateId) {
-        if (y >= 0 && y < 256) {
-            palette.set(x, y, z, blockStateId);
+    // Runs once per chunk in the FEATURES status; may write anywhere in the 3x3 region
+    public abstract void generate(final WorldRegion region, final int chunkX, final int chunkZ);
+
+    // Called when a lazily deferred section is generated after the chunk was published
+    public void generateDeferred(final WorldRegion region, final int chunkX, final int chunkZ, final int sectionY) {
+    }
+
+    protected void safeSetBlock(final WorldRegion region, final int x, final int y, final int z, final int blockStateId) {
+        if (y >= 0 && y < WorldRegion.MAX_HEIGHT) {
+            region.setBlock(x, y, z, blockStateId);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package com.example.worldgen; // Replace with your desired package
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// One JVM-wide worker set shared by many generators, with start-time fair queuing between flows.
+// Each flow (an instance, a stage...) gets throughput proportional to its weight while it has work; within a
+// flow, owners (players, request sources) take turns, so one fast-moving player cannot starve the rest.
+public class GenerationScheduler {
+
+    private final Thread[] workers;
+    private final PriorityQueue<Slot> queue = new PriorityQueue<>(
+            Comparator.comparingDouble((Slot slot) -> slot.virtualStart).thenComparingLong(slot -> slot.sequence)
+    );
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private double virtualTime;
+    private long sequence;
+    private volatile boolean shutdown;
+
+    public GenerationScheduler(final int threads) {
+        workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread(this::runWorker, "worldgen-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    public Flow newFlow(final String name, final double weight) {
+        if (weight <= 0) throw new IllegalArgumentException("weight must be positive: " + weight);
+        return new Flow(name, weight);
+    }
+
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    public int getQueuedTasks() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Queued work is dropped; futures from Flow.supply fail with RejectedExecutionException rather than hang
+    public void shutdown() {
+        final List<Task> dropped = new ArrayList<>();
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Slot slot = queue.poll(); slot != null; slot = queue.poll()) {
+                dropped.add(slot.flow.next());
+            }
+            notEmpty.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        // Outside the lock: failing a future runs its dependents, which may try to submit more work
+        final RejectedExecutionException rejected = new RejectedExecutionException("scheduler is shut down");
+        for (final Task task : dropped) {
+            if (task.future != null) task.future.completeExceptionally(rejected);
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            final Task task;
+            lock.lock();
+            try {
+                while (queue.isEmpty() && !shutdown) {
+                    notEmpty.awaitUninterruptibly();
+                }
+                if (shutdown) return;
+                final Slot slot = queue.poll();
+                task = slot.flow.next();
+                // Virtual time advances to the start tag of the task entering service
+                virtualTime = Math.max(virtualTime, slot.virtualStart);
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.command.run();
+            } catch (final Throwable throwable) {
+                // Supplied work reports through its future; a plain Runnable has nowhere else to go
+                final Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, throwable);
+            }
+        }
+    }
+
+    public final class Flow implements Executor {
+        private final String name;
+        private final double weight;
+        // Commands queued per owner, served round-robin; guarded by lock
+        private final Map<Object, ArrayDeque<Task>> ownerQueues = new HashMap<>();
+        private final ArrayDeque<Object> owners = new ArrayDeque<>();
+        private double lastFinish;
+
+        private Flow(final String name, final double weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            enqueue(this, command, null);
+        }
+
+        // Runs supplier as owner's share of this flow; the future fails instead of hanging if the scheduler shuts down
+        public <T> CompletableFuture<T> supply(final Object owner, final Supplier<T> supplier) {
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            enqueue(owner == null ? this : owner, () -> {
+                try {
+                    future.complete(supplier.get());
+                } catch (final Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            }, future);
+            return future;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getWeight() {
+            return weight;
+        }
+
+        private void enqueue(final Object owner, final Runnable command, final CompletableFuture<?> future) {
+            lock.lock();
+            try {
+                if (shutdown) {
+                    final RejectedExecutionException rejected = new RejectedExecutionException("scheduler is shut down");
+                    if (future == null) throw rejected;
+                    future.completeExceptionally(rejected);
+                    return;
+                }
+                ArrayDeque<Task> pending = ownerQueues.get(owner);
+                if (pending == null) {
+                    pending = new ArrayDeque<>();
+                    ownerQueues.put(owner, pending);
+                    owners.add(owner);
+                }
+                pending.add(new Task(command, future));
+                // A flow that was idle restarts at the current virtual time instead of claiming back-credit
+                final double start = Math.max(virtualTime, lastFinish);
+                lastFinish = start + 1.0 / weight;
+                queue.add(new Slot(this, start, sequence++));
+                notEmpty.signal();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Caller holds lock. Each slot the flow wins goes to the next owner in turn, not to the oldest command
+        private Task next() {
+            final Object owner = owners.poll();
+            final ArrayDeque<Task> pending = ownerQueues.get(owner);
+            final Task task = pending.poll();
+            if (pending.isEmpty()) {
+                ownerQueues.remove(owner);
+            } else {
+                owners.add(owner);
+            }
+            return task;
+        }
+    }
+
+    // A flow's claim on one unit of service; which command runs is decided when the slot is served
+    private static final class Slot {
+        private final Flow flow;
+        private final double virtualStart;
+        private final long sequence;
+
+        private Slot(final Flow flow, final double virtualStart, final long sequence) {
+            this.flow = flow;
+            this.virtualStart = virtualStart;
+            this.sequence = sequence;
+        }
+    }
+
+    private static final class Task {
+        private final Runnable command;
+        private final CompletableFuture<?> future;
+
+        private Task(final Runnable command, final CompletableFuture<?> future) {
+            this.command = command;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.DynamicChunk;
+import net.minestom.server.instance.Instance;
+import net.minestom.server.instance.Section;
+import net.minestom.server.instance.block.Block;
+import net.minestom.server.world.biomes.Biome;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+// Chunk whose sections may be shared with other chunks through SectionInterner. Every write reaches the chunk
+// through setBlock/setBiome/reset (players, plugins, explosions, physics, batches), so copy-on-write happens here:
+// a shared section is swapped for a private clone before the write, and the cached packets are dropped after it.
+public class InternedChunk extends DynamicChunk {
+
+    private final SectionInterner sectionInterner;
+    private final ChunkCache chunkCache;
+    // Sections written through setBlock/reset since publication, one bit per section; guarded by this
+    private long editedSections;
+
+    public InternedChunk(final Instance instance, final int chunkX, final int chunkZ,
+                         final SectionInterner sectionInterner, final ChunkCache chunkCache) {
+        super(instance, chunkX, chunkZ);
+        this.sectionInterner = sectionInterner;
+        this.chunkCache = chunkCache;
+    }
+
+    @Override
+    public void setBlock(final int x, final int y, final int z, @NotNull final Block block) {
+        synchronized (this) {
+            final int sectionY = unshare(y);
+            if (sectionY >= 0 && sectionY < Long.SIZE) editedSections |= 1L << sectionY;
+            super.setBlock(x, y, z, block);
+        }
+        // Outside the chunk's monitor: the cache locks chunks while encoding, never the other way round
+        chunkCache.invalidatePackets(getChunkX(), getChunkZ());
+    }
+
+    @Override
+    public void setBiome(final int x, final int y, final int z, @NotNull final Biome biome) {
+        synchronized (this) {
+            unshare(y);
+            super.setBiome(x, y, z, biome);
+        }
+        chunkCache.invalidatePackets(getChunkX(), getChunkZ());
+    }
+
+    @Override
+    public void reset() {
+        synchronized (this) {
+            // Section.clear would empty the shared copy for every chunk holding it
+            final List<Section> sections = getSections();
+            for (int sectionY = 0; sectionY < sections.size(); sectionY++) {
+                sections.set(sectionY, new Section());
+            }
+            editedSections = -1L;
+        }
+        chunkCache.invalidatePackets(getChunkX(), getChunkZ());
+    }
+
+    // Whether blocks in the section were written after publication (player edits, plugins, physics)
+    public synchronized boolean isSectionEdited(final int sectionY) {
+        return sectionY >= 0 && sectionY < Long.SIZE && (editedSections & (1L << sectionY)) != 0;
+    }
+
+    // Caller holds this chunk's monitor; returns the section index, or -1 if y is outside the chunk
+    private int unshare(final int y) {
+        final int sectionY = Math.floorDiv(y, Chunk.CHUNK_SECTION_SIZE);
+        final List<Section> sections = getSections();
+        if (sectionY < 0 || sectionY >= sections.size()) return -1;
+        final Section section = sections.get(sectionY);
+        if (sectionInterner.isShared(section)) {
+            sections.set(sectionY, section.clone());
+        }
+        return sectionY;
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.network.packet.server.play.UpdateLightPacket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Sky and block light of one section as two 2048-byte nibble arrays in protocol order (y, z, x; low nibble first).
+// Published stores are immutable and shared rather than copied: a relight writes fresh stores and reuses the rest.
+public class LightStore {
+
+    public static final int ARRAY_SIZE = 2048;
+
+    private final byte[] skyLight;
+    private final byte[] blockLight;
+
+    public LightStore() {
+        this.skyLight = new byte[ARRAY_SIZE];
+        this.blockLight = new byte[ARRAY_SIZE];
+    }
+
+    public static int index(final int x, final int y, final int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    public int getSkyLight(final int index) {
+        return get(skyLight, index);
+    }
+
+    public void setSkyLight(final int index, final int level) {
+        set(skyLight, index, level);
+    }
+
+    public int getBlockLight(final int index) {
+        return get(blockLight, index);
+    }
+
+    public void setBlockLight(final int index, final int level) {
+        set(blockLight, index, level);
+    }
+
+    public void fillSkyLight(final int level) {
+        Arrays.fill(skyLight, (byte) (level | (level << 4)));
+    }
+
+    // Sets sky light for y in [fromY, toY) of one column
+    public void fillSkyColumn(final int x, final int z, final int fromY, final int toY, final int level) {
+        for (int y = fromY; y < toY; y++) {
+            set(skyLight, index(x, y, z), level);
+        }
+    }
+
+    public byte[] getSkyLightArray() {
+        return skyLight;
+    }
+
+    public byte[] getBlockLightArray() {
+        return blockLight;
+    }
+
+    // Arrays go into the packet as-is; published stores are never mutated, so no copy is needed
+    public static UpdateLightPacket createLightPacket(final int chunkX, final int chunkZ, final LightStore[] stores) {
+        final UpdateLightPacket packet = new UpdateLightPacket();
+        packet.chunkX = chunkX;
+        packet.chunkZ = chunkZ;
+        packet.trustEdges = true;
+        packet.skyLight = new ArrayList<>(stores.length);
+        packet.blockLight = new ArrayList<>(stores.length);
+        for (int sectionY = 0; sectionY < stores.length; sectionY++) {
+            // Bit 0 is the section below the world
+            final int bit = 1 << (sectionY + 1);
+            packet.skyLightMask |= bit;
+            packet.blockLightMask |= bit;
+            packet.skyLight.add(stores[sectionY].skyLight);
+            packet.blockLight.add(stores[sectionY].blockLight);
+        }
+        return packet;
+    }
+
+    public static long estimateBytes() {
+        return 2L * ARRAY_SIZE + 48;
+    }
+
+    private static int get(final byte[] array, final int index) {
+        return (array[index >> 1] >> ((index & 1) << 2)) & 0xF;
+    }
+
+    private static void set(final byte[] array, final int index, final int level) {
+        final int shift = (index & 1) << 2;
+        final int slot = index >> 1;
+        array[slot] = (byte) ((array[slot] & ~(0xF << shift)) | (level << shift));
+    }
+}
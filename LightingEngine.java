@@ -1,250 +1,245 @@
 package com.example.worldgen; // Replace with your desired package
 
 import net.minestom.server.instance.Chunk;
-import net.minestom.server.instance.Instance;
 import net.minestom.server.instance.Section;
 import net.minestom.server.instance.block.Block;
-import net.minestom.server.instance.palette.Palette;
 
 import java.util.Arrays;
 
 public class LightingEngine {
 
+    private static final int SECTION_VOLUME = Chunk.CHUNK_SIZE_X * Chunk.CHUNK_SECTION_SIZE * Chunk.CHUNK_SIZE_Z;
+    private static final int TOP_Y = ProtoChunk.SECTION_COUNT * Chunk.CHUNK_SECTION_SIZE - 1;
+    // Luminosity per block state, filled lazily; -1 means not looked up yet
+    private static final byte[] LUMINOSITY = new byte[65536];
+
+    static {
+        Arrays.fill(LUMINOSITY, (byte) -1);
+    }
+
     private final ChunkCache chunkCache;
+    private final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
 
     public LightingEngine(final ChunkCache chunkCache) {
         this.chunkCache = chunkCache;
     }
 
-    public void lightChunk(final Instance instance, final int chunkX, final int chunkZ) {
-        final Chunk chunk = instance.getChunk(chunkX, chunkZ);
-        if (chunk == null) return;
-
-        for (int sectionY = 0; sectionY < chunk.getSections().size(); sectionY++) {
-            relightSection(chunk, sectionY);
-        }
+    // Lights sections that are not reachable by any other thread yet; neighbors are read from published chunks only
+    public LightStore[] lightSections(final Section[] sections, final int chunkX, final int chunkZ) {
+        return lightSections(sections, chunkX, chunkZ, sections.length, null);
     }
 
-    private void relightSection(final Chunk chunk, final int sectionY) {
-        final Section section = chunk.getSections().get(sectionY);
-        final Palette lightPalette = section.light();
+    // Relights only sections below topSectionY into fresh stores; stores above are shared from 'existing' and only read
+    public LightStore[] lightSections(final Section[] sections, final int chunkX, final int chunkZ,
+                                      final int topSectionY, final LightStore[] existing) {
+        final int top = existing == null ? sections.length : topSectionY;
+        final LightStore[] light = new LightStore[sections.length];
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            light[sectionY] = sectionY < top ? new LightStore() : existing[sectionY];
+        }
 
-        lightPalette.fill(0);
+        final Scratch work = scratch.get();
+        loadBlocks(sections, top, work);
+        // Cells at or above the limit belong to published stores: they seed propagation but are never written
+        final int limit = top * SECTION_VOLUME;
+
+        // --- Sky light ---
+        work.tail = 0;
+        if (top == sections.length) {
+            for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
+                for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
+                    work.enqueue(index(x, TOP_Y, z), 15);
+                }
+            }
+        } else {
+            seedFromAbove(light, limit, work, true);
+        }
+        seedFromNeighbors(chunkX, chunkZ, limit, work, true);
+        propagate(light, limit, work, true);
+
+        // --- Block light ---
+        work.tail = 0;
+        for (int i = 0; i < work.luminousCount; i++) {
+            final int cell = work.luminous[i];
+            work.enqueue(cell, luminosity(work.luminousStates[i]));
+        }
+        if (top < sections.length) {
+            seedFromAbove(light, limit, work, false);
+        }
+        seedFromNeighbors(chunkX, chunkZ, limit, work, false);
+        propagate(light, limit, work, false);
 
-        propagateSkyLight(chunk, sectionY);
-        propagateBlockLight(chunk, sectionY);
+        return light;
     }
 
-    private void propagateSkyLight(final Chunk chunk, final int sectionY) {
-        final Section section = chunk.getSections().get(sectionY);
-        final Palette blockPalette = section.blockPalette();
-        final Palette lightPalette = section.light();
-
-        final int[] queueX = new int[16 * 16 * 16];
-        final int[] queueY = new int[16 * 16 * 16];
-        final int[] queueZ = new int[16 * 16 * 16];
-        final int[] queueLight = new int[16 * 16 * 16];
-        int head = 0;
-        int tail = 0;
+    // Heightmap skylight from the proto's block buffers: 15 down to the first non-air block of each column, 0 below.
+    // No block light and no horizontal spread; good enough to show terrain until the full pass replaces it.
+    public LightStore[] approximateLight(final ProtoChunk proto) {
+        final LightStore[] light = new LightStore[ProtoChunk.SECTION_COUNT];
+        for (int sectionY = 0; sectionY < light.length; sectionY++) {
+            light[sectionY] = new LightStore();
+        }
 
-        if (sectionY == chunk.getSections().size() - 1) {
+        final int[] heights = new int[Chunk.CHUNK_SIZE_X * Chunk.CHUNK_SIZE_Z];
+        int maxHeight = -1;
+        for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
             for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
-                for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
-                    queueX[tail] = x;
-                    queueY[tail] = Chunk.CHUNK_SECTION_SIZE - 1;
-                    queueZ[tail] = z;
-                    queueLight[tail] = 15;
-                    tail++;
-                }
+                int y = TOP_Y;
+                while (y >= 0 && proto.getBlocks(y >> 4)[SectionBufferPool.index(x, y & 0xF, z)] == 0) y--;
+                heights[(z << 4) | x] = y;
+                maxHeight = Math.max(maxHeight, y);
             }
-        } else {
-            final Section sectionAbove = chunk.getSections().get(sectionY + 1);
-            final Palette lightPaletteAbove = sectionAbove.light();
+        }
 
+        // Sections above every column are open sky throughout
+        final int firstOpenSection = (maxHeight >> 4) + 1;
+        for (int sectionY = firstOpenSection; sectionY < light.length; sectionY++) {
+            light[sectionY].fillSkyLight(15);
+        }
+        for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
             for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
-                for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
-                    final int skyLightAbove = getSkyLight(lightPaletteAbove, x, 0, z);
-                    if (skyLightAbove > 0) {
-                        queueX[tail] = x;
-                        queueY[tail] = Chunk.CHUNK_SECTION_SIZE - 1;
-                        queueZ[tail] = z;
-                        queueLight[tail] = skyLightAbove;
-                        tail++;
-                    }
+                final int skyFrom = heights[(z << 4) | x] + 1;
+                for (int sectionY = skyFrom >> 4; sectionY < firstOpenSection; sectionY++) {
+                    light[sectionY].fillSkyColumn(x, z, Math.max(0, skyFrom - sectionY * Chunk.CHUNK_SECTION_SIZE), Chunk.CHUNK_SECTION_SIZE, 15);
                 }
             }
         }
+        return light;
+    }
 
-        while (head < tail) {
-            final int x = queueX[head];
-            final int y = queueY[head];
-            final int z = queueZ[head];
-            final int lightLevel = queueLight[head];
-            head++;
-
-            final int currentLight = getSkyLight(lightPalette, x, y, z);
-            if (lightLevel > currentLight) {
-                setSkyLight(lightPalette, x, y, z, lightLevel);
-
-                int nextLightLevel = lightLevel;
-                if (blockPalette.get(x, y, z) != 0)
-                    nextLightLevel -= 1;
-
-                if (nextLightLevel > 0) {
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x + 1, y, z, nextLightLevel, sectionY, true);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x - 1, y, z, nextLightLevel, sectionY, true);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y + 1, z, nextLightLevel, sectionY, true);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y - 1, z, nextLightLevel, sectionY, true);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y, z + 1, nextLightLevel, sectionY, true);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y, z - 1, nextLightLevel, sectionY, true);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                }
+    private void loadBlocks(final Section[] sections, final int top, final Scratch work) {
+        Arrays.fill(work.nonAir, 0L);
+        work.luminousCount = 0;
+        for (int sectionY = 0; sectionY < sections.length; sectionY++) {
+            final int base = sectionY * SECTION_VOLUME;
+            final boolean collectLuminous = sectionY < top;
+            sections[sectionY].blockPalette().getAll((x, y, z, state) -> {
+                if (state == 0) return;
+                final int cell = base + LightStore.index(x, y, z);
+                work.nonAir[cell >>> 6] |= 1L << cell;
+                if (collectLuminous && luminosity(state) > 0) work.addLuminous(cell, state);
+            });
+        }
+    }
+
+    private void seedFromAbove(final LightStore[] light, final int limit, final Scratch work, final boolean sky) {
+        final LightStore above = light[limit / SECTION_VOLUME];
+        for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
+            for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
+                final int local = LightStore.index(x, 0, z);
+                final int level = sky ? above.getSkyLight(local) : above.getBlockLight(local);
+                if (level > 0) work.enqueue(limit + local, level);
             }
         }
-        Arrays.fill(queueX, 0);
-        Arrays.fill(queueY, 0);
-        Arrays.fill(queueZ, 0);
-        Arrays.fill(queueLight, 0);
     }
 
-    private void propagateBlockLight(final Chunk chunk, final int sectionY) {
-        final Section section = chunk.getSections().get(sectionY);
-        final Palette blockPalette = section.blockPalette();
-        final Palette lightPalette = section.light();
+    // Pulls light in across chunk borders from published neighbors; they are never written
+    private void seedFromNeighbors(final int chunkX, final int chunkZ, final int limit, final Scratch work, final boolean sky) {
+        seedFromNeighbor(chunkCache.getLight(chunkX - 1, chunkZ), 15, 0, true, limit, work, sky);
+        seedFromNeighbor(chunkCache.getLight(chunkX + 1, chunkZ), 0, 15, true, limit, work, sky);
+        seedFromNeighbor(chunkCache.getLight(chunkX, chunkZ - 1), 15, 0, false, limit, work, sky);
+        seedFromNeighbor(chunkCache.getLight(chunkX, chunkZ + 1), 0, 15, false, limit, work, sky);
+    }
 
-        final int[] queueX = new int[16 * 16 * 16];
-        final int[] queueY = new int[16 * 16 * 16];
-        final int[] queueZ = new int[16 * 16 * 16];
-        final int[] queueLight = new int[16 * 16 * 16];
-        int head = 0;
-        int tail = 0;
-
-        for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
-            for (int y = 0; y < Chunk.CHUNK_SECTION_SIZE; y++) {
-                for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
-                    final int blockStateId = blockPalette.get(x, y, z);
-                    final Block block = Block.fromStateId((short) blockStateId);
-                    if (block != null && block.luminosity() > 0) {
-                        queueX[tail] = x;
-                        queueY[tail] = y;
-                        queueZ[tail] = z;
-                        queueLight[tail] = block.luminosity();
-                        tail++;
-                    }
+    private void seedFromNeighbor(final LightStore[] neighbor, final int neighborEdge, final int ownEdge, final boolean alongX,
+                                  final int limit, final Scratch work, final boolean sky) {
+        if (neighbor == null) return;
+        final int maxY = limit / (Chunk.CHUNK_SIZE_X * Chunk.CHUNK_SIZE_Z);
+        for (int y = 0; y < maxY; y++) {
+            final LightStore store = neighbor[y >> 4];
+            for (int t = 0; t < 16; t++) {
+                final int neighborLocal = alongX ? LightStore.index(neighborEdge, y & 0xF, t) : LightStore.index(t, y & 0xF, neighborEdge);
+                final int level = (sky ? store.getSkyLight(neighborLocal) : store.getBlockLight(neighborLocal)) - 1;
+                if (level > 0) {
+                    work.enqueue(alongX ? index(ownEdge, y, t) : index(t, y, ownEdge), level);
                 }
             }
         }
+    }
 
-        while (head < tail) {
-            final int x = queueX[head];
-            final int y = queueY[head];
-            final int z = queueZ[head];
-            final int lightLevel = queueLight[head];
-            head++;
-
-            final int currentLight = getBlockLight(lightPalette, x, y, z);
-            if (lightLevel > currentLight) {
-                setBlockLight(lightPalette, x, y, z, lightLevel);
-
-                int nextLightLevel = lightLevel;
-                if (blockPalette.get(x, y, z) != 0)
-                    nextLightLevel -= 1;
-
-                if (nextLightLevel > 0) {
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x + 1, y, z, nextLightLevel, sectionY, false);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x - 1, y, z, nextLightLevel, sectionY, false);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y + 1, z, nextLightLevel, sectionY, false);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y - 1, z, nextLightLevel, sectionY, false);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y, z + 1, nextLightLevel, sectionY, false);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                    addNeighborData(queueX, queueY, queueZ, queueLight, tail, chunk, x, y, z - 1, nextLightLevel, sectionY, false);
-                    tail = queueX.length == tail ? tail : tail + 1;
-                }
+    // Breadth-first flood: each step keeps the level through air and loses one level through any other block
+    private void propagate(final LightStore[] light, final int limit, final Scratch work, final boolean sky) {
+        int head = 0;
+        while (head < work.tail) {
+            final int entry = work.queue[head++];
+            final int cell = entry >>> 4;
+            final int level = entry & 0xF;
+
+            if (cell < limit) {
+                if (level <= get(light, cell, sky)) continue;
+                set(light, cell, sky, level);
             }
+
+            final int nextLevel = (work.nonAir[cell >>> 6] & (1L << cell)) != 0 ? level - 1 : level;
+            if (nextLevel <= 0) continue;
+
+            final int x = cell & 0xF;
+            final int z = (cell >> 4) & 0xF;
+            final int y = cell >> 8;
+            if (x > 0) offer(light, cell - 1, nextLevel, limit, work, sky);
+            if (x < 15) offer(light, cell + 1, nextLevel, limit, work, sky);
+            if (z > 0) offer(light, cell - 16, nextLevel, limit, work, sky);
+            if (z < 15) offer(light, cell + 16, nextLevel, limit, work, sky);
+            if (y > 0) offer(light, cell - 256, nextLevel, limit, work, sky);
+            if (y < TOP_Y) offer(light, cell + 256, nextLevel, limit, work, sky);
         }
-        Arrays.fill(queueX, 0);
-        Arrays.fill(queueY, 0);
-        Arrays.fill(queueZ, 0);
-        Arrays.fill(queueLight, 0);
     }
 
-    private void addNeighborData(final int[] queueX, final int[] queueY, final int[] queueZ, final int[] queueLight, int tail,
-                                 final Chunk chunk, final int x, final int y, final int z, final int lightLevel, final int sectionY, final boolean isSkyLight) {
-        if (x >= 0 && x < Chunk.CHUNK_SIZE_X && y >= 0 && y < Chunk.CHUNK_SECTION_SIZE && z >= 0 && z < Chunk.CHUNK_SIZE_Z) {
-            queueX[tail] = x;
-            queueY[tail] = y;
-            queueZ[tail] = z;
-            queueLight[tail] = lightLevel;
+    private void offer(final LightStore[] light, final int cell, final int level, final int limit, final Scratch work, final boolean sky) {
+        if (cell < limit && level > get(light, cell, sky)) work.enqueue(cell, level);
+    }
+
+    private static int get(final LightStore[] light, final int cell, final boolean sky) {
+        final LightStore store = light[cell >> 12];
+        return sky ? store.getSkyLight(cell & 0xFFF) : store.getBlockLight(cell & 0xFFF);
+    }
+
+    private static void set(final LightStore[] light, final int cell, final boolean sky, final int level) {
+        final LightStore store = light[cell >> 12];
+        if (sky) {
+            store.setSkyLight(cell & 0xFFF, level);
         } else {
-            int neighborChunkX = chunk.getChunkX();
-            int neighborChunkZ = chunk.getChunkZ();
-            int neighborSectionY = sectionY;
-
-            if (x < 0) {
-                neighborChunkX--;
-                x = Chunk.CHUNK_SIZE_X - 1;
-            } else if (x >= Chunk.CHUNK_SIZE_X) {
-                neighborChunkX++;
-                x = 0;
-            }
-            if (z < 0) {
-                neighborChunkZ--;
-                z = Chunk.CHUNK_SIZE_Z - 1;
-            } else if (z >= Chunk.CHUNK_SIZE_Z) {
-                neighborChunkZ++;
-                z = 0;
-            }
-            if (y < 0) {
-                neighborSectionY--;
-                y = Chunk.CHUNK_SECTION_SIZE - 1;
-            } else if (y >= Chunk.CHUNK_SECTION_SIZE) {
-                neighborSectionY++;
-                y = 0;
-            }
-            if (neighborSectionY < 0 || neighborSectionY > 15) return;
-
-            final Chunk neighborChunk = chunkCache.getChunk(neighborChunkX, neighborChunkZ);
-            if (neighborChunk != null) {
-                if (neighborSectionY >= 0 && neighborSectionY < neighborChunk.getSections().size()) {
-                    final Section neighborSection = neighborChunk.getSections().get(neighborSectionY);
-                    final Palette neighborLightPalette = neighborSection.light();
-
-                    final int existingLight = isSkyLight ? getSkyLight(neighborLightPalette, x, y, z) : getBlockLight(neighborLightPalette, x, y, z);
-                    if (lightLevel > existingLight) {
-                        queueX[tail] = x;
-                        queueY[tail] = y;
-                        queueZ[tail] = z;
-                        queueLight[tail] = lightLevel;
-                    }
-                }
-            }
+            store.setBlockLight(cell & 0xFFF, level);
         }
     }
 
-    private int getSkyLight(final Palette palette, final int x, final int y, final int z) {
-        return (palette.get(x, y, z) >> 4) & 0xF;
+    // Chunk-wide cell index: world Y, then z, then x; the section is index >> 12
+    private static int index(final int x, final int y, final int z) {
+        return (y << 8) | (z << 4) | x;
     }
 
-    private void setSkyLight(final Palette palette, final int x, final int y, final int z, final int lightLevel) {
-        final int combined = palette.get(x, y, z);
-        palette.set(x, y, z, (combined & 0xF) | (lightLevel << 4));
+    private static int luminosity(final int state) {
+        int value = LUMINOSITY[state];
+        if (value < 0) {
+            final Block block = Block.fromStateId((short) state);
+            value = block == null ? 0 : block.luminosity();
+            LUMINOSITY[state] = (byte) value;
+        }
+        return value;
     }
 
-    private int getBlockLight(final Palette palette, final int x, final int y, final int z) {
-        return palette.get(x, y, z) & 0xF;
-    }
+    private static final class Scratch {
+        private final long[] nonAir = new long[ProtoChunk.SECTION_COUNT * SECTION_VOLUME / Long.SIZE];
+        private int[] queue = new int[ProtoChunk.SECTION_COUNT * SECTION_VOLUME];
+        private int tail;
+        private int[] luminous = new int[256];
+        private int[] luminousStates = new int[256];
+        private int luminousCount;
+
+        // Entries pack the cell index above the 4-bit light level
+        void enqueue(final int cell, final int level) {
+            if (tail == queue.length) queue = Arrays.copyOf(queue, queue.length * 2);
+            queue[tail++] = (cell << 4) | level;
+        }
 
-    private void setBlockLight(final Palette palette, final int x, final int y, final int z, final int lightLevel) {
-        final int combined = palette.get(x, y, z);
-        palette.set(x, y, z, (combined & 0xF0) | lightLevel);
+        void addLuminous(final int cell, final int state) {
+            if (luminousCount == luminous.length) {
+                luminous = Arrays.copyOf(luminous, luminousCount * 2);
+                luminousStates = Arrays.copyOf(luminousStates, luminousCount * 2);
+            }
+            luminous[luminousCount] = cell;
+            luminousStates[luminousCount] = state;
+            luminousCount++;
+        }
     }
-}
\ No newline at end of file
+}
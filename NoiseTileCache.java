@@ -0,0 +1,119 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.instance.Chunk;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class NoiseTileCache {
+
+    public static final int TILE_CHUNKS = 4;
+    public static final int TILE_SIZE = TILE_CHUNKS * Chunk.CHUNK_SIZE_X;
+    // Biome noise keeps a 1-block apron so every chunk's 18x18 window lies inside one tile
+    public static final int BIOME_TILE_SIZE = TILE_SIZE + 2;
+    private static final long TILE_BYTES = (long) (TILE_SIZE * TILE_SIZE + BIOME_TILE_SIZE * BIOME_TILE_SIZE) * Float.BYTES;
+
+    private final FastNoiseLite heightNoise;
+    private final FastNoiseLite biomeNoise;
+    private final long maxBytes;
+    private final LinkedHashMap<Long, Tile> tiles;
+    private long currentBytes;
+
+    public NoiseTileCache(final FastNoiseLite heightNoise, final FastNoiseLite biomeNoise, final long maxBytes) {
+        this.heightNoise = heightNoise;
+        this.biomeNoise = biomeNoise;
+        this.maxBytes = Math.max(maxBytes, TILE_BYTES);
+        this.tiles = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    public Tile getTile(final int chunkX, final int chunkZ) {
+        final int tileX = Math.floorDiv(chunkX, TILE_CHUNKS);
+        final int tileZ = Math.floorDiv(chunkZ, TILE_CHUNKS);
+        final long key = getKey(tileX, tileZ);
+
+        synchronized (tiles) {
+            final Tile tile = tiles.get(key);
+            if (tile != null) return tile;
+        }
+
+        // Sample outside the lock; if two threads race on the same tile the first insert wins
+        final Tile computed = computeTile(tileX, tileZ);
+        synchronized (tiles) {
+            final Tile existing = tiles.putIfAbsent(key, computed);
+            if (existing != null) return existing;
+            currentBytes += TILE_BYTES;
+            evict();
+        }
+        return computed;
+    }
+
+    public long getCurrentBytes() {
+        synchronized (tiles) {
+            return currentBytes;
+        }
+    }
+
+    public void clear() {
+        synchronized (tiles) {
+            tiles.clear();
+            currentBytes = 0;
+        }
+    }
+
+    private void evict() {
+        final Iterator<Tile> iterator = tiles.values().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            currentBytes -= TILE_BYTES;
+        }
+    }
+
+    private Tile computeTile(final int tileX, final int tileZ) {
+        final int originX = tileX * TILE_SIZE;
+        final int originZ = tileZ * TILE_SIZE;
+
+        final float[] height = new float[TILE_SIZE * TILE_SIZE];
+        for (int x = 0; x < TILE_SIZE; x++) {
+            for (int z = 0; z < TILE_SIZE; z++) {
+                height[x * TILE_SIZE + z] = heightNoise.GetNoise(originX + x, originZ + z);
+            }
+        }
+
+        final float[] biome = new float[BIOME_TILE_SIZE * BIOME_TILE_SIZE];
+        for (int x = 0; x < BIOME_TILE_SIZE; x++) {
+            for (int z = 0; z < BIOME_TILE_SIZE; z++) {
+                biome[x * BIOME_TILE_SIZE + z] = biomeNoise.GetNoise(originX + x - 1, originZ + z - 1);
+            }
+        }
+        return new Tile(originX, originZ, height, biome);
+    }
+
+    private long getKey(final int tileX, final int tileZ) {
+        return ((long) tileX << 32) | (tileZ & 0xFFFFFFFFL);
+    }
+
+    public static final class Tile {
+        private final int originX;
+        private final int originZ;
+        private final float[] height;
+        private final float[] biome;
+
+        private Tile(final int originX, final int originZ, final float[] height, final float[] biome) {
+            this.originX = originX;
+            this.originZ = originZ;
+            this.height = height;
+            this.biome = biome;
+        }
+
+        public float getHeightNoise(final int worldX, final int worldZ) {
+            return height[(worldX - originX) * TILE_SIZE + (worldZ - originZ)];
+        }
+
+        // Valid for worldX/worldZ within one block outside the tile
+        public float getBiomeNoise(final int worldX, final int worldZ) {
+            return biome[(worldX - originX + 1) * BIOME_TILE_SIZE + (worldZ - originZ + 1)];
+        }
+    }
+}
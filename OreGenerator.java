@@ -1,83 +1,168 @@
 package com.example.worldgen; // Replace with your desired package
 
 import net.minestom.server.instance.Chunk;
-import net.minestom.server.instance.Section;
 import net.minestom.server.instance.block.Block;
-import net.minestom.server.instance.palette.Palette;
+
+import java.util.Arrays;
 
 public class OreGenerator extends FeatureGenerator {
 
-    private static final int COAL_VEIN_SIZE = 17;
-    private static final int COAL_VEINS_PER_CHUNK = 20;
-    private static final int COAL_MIN_HEIGHT = 0;
-    private static final int COAL_MAX_HEIGHT = 128;
-    private static final int COAL_ID = Block.COAL_ORE.stateId();
+    public static final String NAME = "ores";
+    private static final int VEIN_CHANCE = 50;
     private static final float ORE_NOISE_SCALE = 0.05f;
+    private static final int SECTION_VOLUME = Chunk.CHUNK_SIZE_X * Chunk.CHUNK_SECTION_SIZE * Chunk.CHUNK_SIZE_Z;
     private final FastNoiseLite oreNoise;
     private final Block targetBlock;
+    private final OreTable oreTable;
+    // Per-thread scratch: replaceable mask, noise samples and which samples are valid
+    private final ThreadLocal<SectionScratch> scratch = ThreadLocal.withInitial(SectionScratch::new);
 
     public OreGenerator(final long seed, final Block targetBlock) {
+        this(seed, targetBlock, OreTable.defaults());
+    }
+
+    public OreGenerator(final long seed, final Block targetBlock, final OreTable oreTable) {
         super(seed);
         oreNoise = new FastNoiseLite((int) seed);
         oreNoise.SetNoiseType(FastNoiseLite.NoiseType.OpenSimplex2);
         oreNoise.SetFrequency(ORE_NOISE_SCALE);
         this.targetBlock = targetBlock;
+        this.oreTable = oreTable;
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void generate(final WorldRegion region, final int chunkX, final int chunkZ) {
+        // Placeholder sections get their ores when they are realized
+        for (int sectionY = region.getFirstGeneratedSection(chunkX, chunkZ); sectionY < ProtoChunk.SECTION_COUNT; sectionY++) {
+            generateSection(region, chunkX, chunkZ, sectionY);
+        }
     }
 
     @Override
-    public void generate(final Section section, final int chunkX, final int chunkZ, final int sectionY) {
-        final Palette palette = section.blockPalette();
-        for (int i = 0; i < COAL_VEINS_PER_CHUNK; i++) {
-            if (random.nextInt(100) < 50) {
-                int x = random.nextInt(Chunk.CHUNK_SIZE_X);
-                int z = random.nextInt(Chunk.CHUNK_SIZE_Z);
-                int y = random.nextInt(Chunk.CHUNK_SECTION_SIZE);
-                final int worldY = sectionY * Chunk.CHUNK_SECTION_SIZE + y;
-
-                if (worldY >= COAL_MIN_HEIGHT && worldY <= COAL_MAX_HEIGHT) {
-                    int airCount = 0;
-
-                    if (x > 0 && palette.get(x - 1, y, z) == 0)
-                        airCount++;
-                    if (x < Chunk.CHUNK_SIZE_X - 1 && palette.get(x + 1, y, z) == 0)
-                        airCount++;
-                    if (y > 0 && palette.get(x, y - 1, z) == 0)
-                        airCount++;
-                    if (y < Chunk.CHUNK_SECTION_SIZE - 1 && palette.get(x, y + 1, z) == 0)
-                        airCount++;
-                    if (z > 0 && palette.get(x, y, z - 1) == 0)
-                        airCount++;
-                    if (z < Chunk.CHUNK_SIZE_Z - 1 && palette.get(x, y, z + 1) == 0)
-                        airCount++;
-
-                    if (airCount >= 4) continue;
-                    generateVein(palette, x, y, z, chunkX, chunkZ);
+    public void generateDeferred(final WorldRegion region, final int chunkX, final int chunkZ, final int sectionY) {
+        generateSection(region, chunkX, chunkZ, sectionY);
+    }
+
+    // One pass per section for every ore in the table; the mask and noise samples are shared between ores
+    private void generateSection(final WorldRegion region, final int chunkX, final int chunkZ, final int sectionY) {
+        final int minY = sectionY * Chunk.CHUNK_SECTION_SIZE;
+        final int maxY = minY + Chunk.CHUNK_SECTION_SIZE - 1;
+        boolean prepared = false;
+        final SectionScratch sectionScratch = scratch.get();
+
+        for (final OreTable.Entry ore : oreTable.getEntries()) {
+            if (ore.maxY < minY || ore.minY > maxY) continue;
+            if (!prepared) {
+                sectionScratch.prepare(region, chunkX, chunkZ, sectionY, targetBlock.stateId());
+                prepared = true;
+            }
+
+            for (int i = 0; i < ore.veinsPerSection; i++) {
+                if (random.nextInt(100) < VEIN_CHANCE) {
+                    final int x = chunkX * Chunk.CHUNK_SIZE_X + random.nextInt(Chunk.CHUNK_SIZE_X);
+                    final int z = chunkZ * Chunk.CHUNK_SIZE_Z + random.nextInt(Chunk.CHUNK_SIZE_Z);
+                    final int y = minY + random.nextInt(Chunk.CHUNK_SECTION_SIZE);
+
+                    if (y >= ore.minY && y <= ore.maxY) {
+                        int airCount = 0;
+
+                        if (region.getBlock(x - 1, y, z) == 0)
+                            airCount++;
+                        if (region.getBlock(x + 1, y, z) == 0)
+                            airCount++;
+                        if (y > 0 && region.getBlock(x, y - 1, z) == 0)
+                            airCount++;
+                        if (region.getBlock(x, y + 1, z) == 0)
+                            airCount++;
+                        if (region.getBlock(x, y, z - 1) == 0)
+                            airCount++;
+                        if (region.getBlock(x, y, z + 1) == 0)
+                            airCount++;
+
+                        if (airCount >= 4) continue;
+                        generateVein(region, sectionScratch, ore, x, y, z);
+                    }
                 }
             }
         }
     }
 
-    private void generateVein(final Palette palette, int startX, int startY, int startZ, final int chunkX, final int chunkZ) {
-        for (int i = 0; i < COAL_VEIN_SIZE; i++) {
-            final int worldX = chunkX * Chunk.CHUNK_SIZE_X + startX;
-            final int worldZ = chunkZ * Chunk.CHUNK_SIZE_Z + startZ;
-            final int worldY = startY;
+    // Veins walk freely across section and chunk borders; the region clips anything outside its 3x3 window
+    private void generateVein(final WorldRegion region, final SectionScratch sectionScratch, final OreTable.Entry ore,
+                              int x, int y, int z) {
+        for (int i = 0; i < ore.veinSize; i++) {
+            final int index = sectionScratch.indexOf(x, y, z);
+            if (index >= 0) {
+                if (sectionScratch.isReplaceable(index) && sectionScratch.getNoise(oreNoise, index, x, y, z) > ore.noiseThreshold) {
+                    region.setBlock(x, y, z, ore.blockStateId);
+                    sectionScratch.clearReplaceable(index);
+                }
+            } else if (region.getBlock(x, y, z) == targetBlock.stateId() && oreNoise.GetNoise(x, y, z) > ore.noiseThreshold) {
+                safeSetBlock(region, x, y, z, ore.blockStateId);
+            }
+
+            x += random.nextInt(3) - 1;
+            y += random.nextInt(3) - 1;
+            z += random.nextInt(3) - 1;
+
+            y = Math.max(0, Math.min(y, WorldRegion.MAX_HEIGHT - 1));
+        }
+    }
 
-            final float noiseValue = oreNoise.GetNoise(worldX, worldY, worldZ);
+    private static final class SectionScratch {
+        private final long[] replaceable = new long[SECTION_VOLUME / Long.SIZE];
+        private final long[] sampled = new long[SECTION_VOLUME / Long.SIZE];
+        private final float[] noise = new float[SECTION_VOLUME];
+        private int originX;
+        private int originY;
+        private int originZ;
 
-            if (noiseValue > 0.6) {
-                if (palette.get(startX, startY, startZ) == targetBlock.stateId()) {
-                    safeSetBlock(palette, startX, worldY, startZ, COAL_ID);
+        void prepare(final WorldRegion region, final int chunkX, final int chunkZ, final int sectionY, final int targetStateId) {
+            originX = chunkX * Chunk.CHUNK_SIZE_X;
+            originY = sectionY * Chunk.CHUNK_SECTION_SIZE;
+            originZ = chunkZ * Chunk.CHUNK_SIZE_Z;
+            Arrays.fill(replaceable, 0L);
+            Arrays.fill(sampled, 0L);
+            for (int y = 0; y < Chunk.CHUNK_SECTION_SIZE; y++) {
+                for (int z = 0; z < Chunk.CHUNK_SIZE_Z; z++) {
+                    for (int x = 0; x < Chunk.CHUNK_SIZE_X; x++) {
+                        if (region.getBlock(originX + x, originY + y, originZ + z) == targetStateId) {
+                            final int index = (y << 8) | (z << 4) | x;
+                            replaceable[index >>> 6] |= 1L << index;
+                        }
+                    }
                 }
             }
+        }
+
+        int indexOf(final int x, final int y, final int z) {
+            final int localX = x - originX;
+            final int localY = y - originY;
+            final int localZ = z - originZ;
+            if ((localX | localY | localZ) < 0 || localX > 15 || localY > 15 || localZ > 15) return -1;
+            return (localY << 8) | (localZ << 4) | localX;
+        }
 
-            startX += random.nextInt(3) - 1;
-            startY += random.nextInt(3) - 1;
-            startZ += random.nextInt(3) - 1;
+        boolean isReplaceable(final int index) {
+            return (replaceable[index >>> 6] & (1L << index)) != 0;
+        }
 
-            startX = Math.max(0, Math.min(startX, Chunk.CHUNK_SIZE_X - 1));
-            startY = Math.max(0, Math.min(startY, Chunk.CHUNK_SECTION_SIZE - 1));
-            startZ = Math.max(0, Math.min(startZ, Chunk.CHUNK_SIZE_Z - 1));
+        void clearReplaceable(final int index) {
+            replaceable[index >>> 6] &= ~(1L << index);
+        }
+
+        float getNoise(final FastNoiseLite oreNoise, final int index, final int x, final int y, final int z) {
+            final long bit = 1L << index;
+            if ((sampled[index >>> 6] & bit) == 0) {
+                noise[index] = oreNoise.GetNoise(x, y, z);
+                sampled[index >>> 6] |= bit;
+            }
+            return noise[index];
         }
     }
-}
\ No newline at end of file
+}
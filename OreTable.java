@@ -0,0 +1,46 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.instance.block.Block;
+
+import java.util.List;
+
+public class OreTable {
+
+    private final List<Entry> entries;
+
+    public OreTable(final List<Entry> entries) {
+        this.entries = List.copyOf(entries);
+    }
+
+    public static OreTable defaults() {
+        return new OreTable(List.of(
+                new Entry(Block.COAL_ORE.stateId(), 17, 20, 0, 128, 0.6f),
+                new Entry(Block.IRON_ORE.stateId(), 9, 10, 0, 64, 0.6f),
+                new Entry(Block.GOLD_ORE.stateId(), 9, 2, 0, 32, 0.65f),
+                new Entry(Block.DIAMOND_ORE.stateId(), 8, 1, 0, 16, 0.7f)
+        ));
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public static class Entry {
+        public final int blockStateId;
+        public final int veinSize;
+        public final int veinsPerSection;
+        public final int minY;
+        public final int maxY;
+        public final float noiseThreshold;
+
+        public Entry(final int blockStateId, final int veinSize, final int veinsPerSection,
+                     final int minY, final int maxY, final float noiseThreshold) {
+            this.blockStateId = blockStateId;
+            this.veinSize = veinSize;
+            this.veinsPerSection = veinsPerSection;
+            this.minY = minY;
+            this.maxY = maxY;
+            this.noiseThreshold = noiseThreshold;
+        }
+    }
+}
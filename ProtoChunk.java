@@ -0,0 +1,116 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.instance.Chunk;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+public class ProtoChunk {
+
+    public static final int SECTION_COUNT = 16;
+
+    private final int chunkX;
+    private final int chunkZ;
+    private final short[][] blocks = new short[SECTION_COUNT][];
+    private final ReentrantLock writeLock = new ReentrantLock();
+    @SuppressWarnings("unchecked")
+    private final CompletableFuture<ProtoChunk>[] stages = new CompletableFuture[ChunkStatus.values().length];
+    private volatile Chunk chunk;
+    private volatile int firstGeneratedSection;
+    // Lifetime: windows and generate calls retain the proto while they depend on it; guarded by this
+    private int dependents;
+    private int runningStages;
+    private long lastUsedNanos = System.nanoTime();
+    private boolean retired;
+
+    public ProtoChunk(final int chunkX, final int chunkZ) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+    }
+
+    public CompletableFuture<ProtoChunk> stage(final ChunkStatus target, final Function<ProtoChunk, CompletableFuture<ProtoChunk>> starter) {
+        final CompletableFuture<ProtoChunk> created;
+        synchronized (stages) {
+            final CompletableFuture<ProtoChunk> existing = stages[target.ordinal()];
+            if (existing != null) return existing;
+            created = new CompletableFuture<>();
+            stages[target.ordinal()] = created;
+        }
+        synchronized (this) {
+            runningStages++;
+        }
+
+        // Start outside the monitor: starters request neighbor stages, which may in turn request ours
+        starter.apply(this).whenComplete((proto, throwable) -> {
+            synchronized (this) {
+                runningStages--;
+                lastUsedNanos = System.nanoTime();
+            }
+            if (throwable != null) {
+                created.completeExceptionally(throwable);
+            } else {
+                created.complete(proto);
+            }
+        });
+        return created;
+    }
+
+    // Fails once the proto is retired; the caller must then drop it from the map and start a fresh one
+    public synchronized boolean retain() {
+        if (retired) return false;
+        dependents++;
+        lastUsedNanos = System.nanoTime();
+        return true;
+    }
+
+    public synchronized void release() {
+        dependents--;
+        lastUsedNanos = System.nanoTime();
+    }
+
+    // Retires an unpublished proto nothing depends on that has been idle for idleNanos; its buffers may then be freed
+    public synchronized boolean tryRetire(final long nowNanos, final long idleNanos) {
+        if (retired || chunk != null || dependents > 0 || runningStages > 0 || nowNanos - lastUsedNanos < idleNanos) return false;
+        retired = true;
+        return true;
+    }
+
+    public int getChunkX() {
+        return chunkX;
+    }
+
+    public int getChunkZ() {
+        return chunkZ;
+    }
+
+    // Scratch block buffers written by TERRAIN and FEATURES; released once committed to sections
+    public short[] getBlocks(final int sectionY) {
+        return blocks[sectionY];
+    }
+
+    public void setBlocks(final int sectionY, final short[] buffer) {
+        blocks[sectionY] = buffer;
+    }
+
+    public ReentrantLock getWriteLock() {
+        return writeLock;
+    }
+
+    // Sections below this index hold placeholder fill (lazy vertical generation)
+    public int getFirstGeneratedSection() {
+        return firstGeneratedSection;
+    }
+
+    public void setFirstGeneratedSection(final int firstGeneratedSection) {
+        this.firstGeneratedSection = firstGeneratedSection;
+    }
+
+    public Chunk getChunk() {
+        return chunk;
+    }
+
+    public void setChunk(final Chunk chunk) {
+        this.chunk = chunk;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.instance.Chunk;
+import net.minestom.server.instance.palette.Palette;
+
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Scratch block buffers (y, z, x order) that sections are built in before a single commit into their Palette
+public class SectionBufferPool {
+
+    public static final int SECTION_VOLUME = Chunk.CHUNK_SIZE_X * Chunk.CHUNK_SECTION_SIZE * Chunk.CHUNK_SIZE_Z;
+
+    private final Queue<short[]> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+    private final int maxPooled;
+
+    public SectionBufferPool(final int maxPooled) {
+        this.maxPooled = maxPooled;
+    }
+
+    public short[] acquire() {
+        final short[] buffer = free.poll();
+        if (buffer == null) return new short[SECTION_VOLUME];
+        pooled.decrementAndGet();
+        return buffer;
+    }
+
+    public void release(final short[] buffer) {
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        Arrays.fill(buffer, (short) 0);
+        free.offer(buffer);
+    }
+
+    // Uniform sections become a single fill; everything else is one setAll, which sizes the palette once
+    public void commit(final short[] buffer, final Palette palette) {
+        if (isUniform(buffer)) {
+            if (buffer[0] != 0) palette.fill(buffer[0] & 0xFFFF);
+        } else {
+            palette.setAll((x, y, z) -> buffer[index(x, y, z)] & 0xFFFF);
+        }
+    }
+
+    public static int index(final int x, final int y, final int z) {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    // Mixed sections usually differ within the first few entries, so this rarely scans the whole buffer
+    private static boolean isUniform(final short[] buffer) {
+        final short first = buffer[0];
+        for (final short state : buffer) {
+            if (state != first) return false;
+        }
+        return true;
+    }
+}
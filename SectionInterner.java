@@ -0,0 +1,142 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.instance.Section;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Hands out one shared, never-mutated Section per distinct block content, and one shared LightStore for the
+// common all-sky and all-dark light. Chunks holding a shared section must swap in a private copy before
+// writing a block into it (see InternedChunk).
+public class SectionInterner {
+
+    private static final int DEFAULT_MAX_CANDIDATES = 4096;
+
+    private final SectionBufferPool sectionBufferPool;
+    private final int maxCandidates;
+    // Uniform sections (all air above the terrain, all stone placeholders) by state id
+    private final Map<Integer, Section> uniformSections = new ConcurrentHashMap<>();
+    // Mixed sections by content hash: null until the content is seen a second time, then the canonical copy
+    private final Map<Long, Canonical> mixedSections = new ConcurrentHashMap<>();
+    // Every section or light store handed out as shared; weak so sections dropped by all chunks disappear
+    private final Set<Object> shared = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final LightStore fullSky;
+    private final LightStore dark;
+
+    public SectionInterner(final SectionBufferPool sectionBufferPool) {
+        this(sectionBufferPool, DEFAULT_MAX_CANDIDATES);
+    }
+
+    public SectionInterner(final SectionBufferPool sectionBufferPool, final int maxCandidates) {
+        this.sectionBufferPool = sectionBufferPool;
+        this.maxCandidates = maxCandidates;
+        fullSky = new LightStore();
+        fullSky.fillSkyLight(15);
+        dark = new LightStore();
+        shared.add(fullSky);
+        shared.add(dark);
+    }
+
+    // Returns a section holding the buffer's blocks; the buffer is not retained
+    public Section intern(final short[] blocks) {
+        if (isUniform(blocks)) {
+            return uniformSections.computeIfAbsent(blocks[0] & 0xFFFF, state -> share(commit(blocks)));
+        }
+
+        final long hash = hash(blocks);
+        final Canonical canonical = mixedSections.get(hash);
+        if (canonical != null && canonical.section != null && Arrays.equals(canonical.blocks, blocks)) {
+            return canonical.section;
+        }
+
+        final Section section = commit(blocks);
+        if (canonical == null) {
+            // First sighting only records the hash; most mixed sections are unique and never pay for a copy
+            if (mixedSections.size() >= maxCandidates) mixedSections.clear();
+            mixedSections.putIfAbsent(hash, Canonical.CANDIDATE);
+        } else if (canonical.section == null) {
+            mixedSections.replace(hash, canonical, new Canonical(blocks.clone(), share(section)));
+        }
+        return section;
+    }
+
+    // Replaces all-sky and all-dark stores with shared instances; stores are never mutated after lighting
+    public LightStore[] internLight(final LightStore[] light) {
+        for (int sectionY = 0; sectionY < light.length; sectionY++) {
+            final LightStore store = light[sectionY];
+            if (isFilled(store.getBlockLightArray(), (byte) 0)) {
+                final byte[] sky = store.getSkyLightArray();
+                if (isFilled(sky, (byte) 0xFF)) {
+                    light[sectionY] = fullSky;
+                } else if (isFilled(sky, (byte) 0)) {
+                    light[sectionY] = dark;
+                }
+            }
+        }
+        return light;
+    }
+
+    public boolean isShared(final Object sectionOrLight) {
+        return shared.contains(sectionOrLight);
+    }
+
+    public int getUniqueSectionCount() {
+        return uniformSections.size() + mixedSections.size();
+    }
+
+    public void clear() {
+        uniformSections.clear();
+        mixedSections.clear();
+    }
+
+    private Section commit(final short[] blocks) {
+        final Section section = new Section();
+        sectionBufferPool.commit(blocks, section.blockPalette());
+        return section;
+    }
+
+    private Section share(final Section section) {
+        shared.add(section);
+        return section;
+    }
+
+    private static boolean isUniform(final short[] blocks) {
+        final short first = blocks[0];
+        for (final short block : blocks) {
+            if (block != first) return false;
+        }
+        return true;
+    }
+
+    private static boolean isFilled(final byte[] array, final byte value) {
+        for (final byte b : array) {
+            if (b != value) return false;
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a over the states; collisions are caught by the full comparison before sharing
+    private static long hash(final short[] blocks) {
+        long hash = 0xcbf29ce484222325L;
+        for (final short block : blocks) {
+            hash = (hash ^ (block & 0xFFFF)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Canonical {
+        private static final Canonical CANDIDATE = new Canonical(null, null);
+
+        private final short[] blocks;
+        private final Section section;
+
+        private Canonical(final short[] blocks, final Section section) {
+            this.blocks = blocks;
+            this.section = section;
+        }
+    }
+}
@@ -1,10 +1,13 @@
+import com.example.worldgen.ChunkCache;
 import com.example.worldgen.ChunkLoader;
 import com.example.worldgen.ChunkUnloader;
 import com.example.worldgen.FastWorldGenerator;
+import com.example.worldgen.GenerationScheduler;
 import net.minestom.server.MinecraftServer;
 import net.minestom.server.coordinate.Pos;
 import net.minestom.server.entity.Player;
 import net.minestom.server.event.GlobalEventHandler;
+import net.minestom.server.event.player.PlayerDisconnectEvent;
 import net.minestom.server.event.player.PlayerLoginEvent;
 import net.minestom.server.event.player.PlayerSpawnEvent;
 import net.minestom.server.instance.Chunk;
@@ -25,9 +28,10 @@ public class ServerIntegrationExample {
         InstanceContainer instanceContainer = instanceManager.createInstanceContainer(DimensionType.OVERWORLD);
 
         // --- World Generation Setup ---
-        int cacheCapacity = 1024; // Example capacity
-        int threadPoolSize = Runtime.getRuntime().availableProcessors() * 2;  // Example: 2x cores
-        FastWorldGenerator chunkGenerator = new FastWorldGenerator(cacheCapacity, threadPoolSize);
+        long cacheBytes = 256L * 1024 * 1024; // Example budget; shrinks automatically under heap pressure
+        // One worker set per JVM; every instance's generator gets a weighted fair share of it.
+        GenerationScheduler generationScheduler = new GenerationScheduler(Runtime.getRuntime().availableProcessors());
+        FastWorldGenerator chunkGenerator = new FastWorldGenerator(ChunkCache.withByteBudget(cacheBytes), generationScheduler, 1.0);
 
         //Set the chunk generator
         BiFunction<InstanceContainer, int[], CompletableFuture<Chunk>> chunkSupplier = (instance, ints) -> {
@@ -69,6 +73,8 @@ public class ServerIntegrationExample {
             chunkLoader.loadChunksAroundPlayer(player);
         });
 
+        globalEventHandler.addListener(PlayerDisconnectEvent.class, event -> chunkLoader.removePlayer(event.getPlayer()));
+
         //load and unload chunks: (example).
         MinecraftServer.getSchedulerManager().buildTask(() -> {
             var players = MinecraftServer.getConnectionManager().getOnlinePlayers();
@@ -77,6 +83,8 @@ public class ServerIntegrationExample {
                 chunkLoader.loadChunksAroundPlayer(player);
                 chunkUnloader.unloadChunks(player); //unload chunks no longer in view.
             }
+            //send finished chunks within the per-tick budget, leftovers carry over.
+            chunkLoader.processCompletedChunks();
         }).repeat(50, net.minestom.server.timer.TimeUnit.MILLISECOND).schedule(); //repeat task.
 
         // --- Start the Server ---
@@ -0,0 +1,127 @@
+package com.example.worldgen; // Replace with your desired package
+
+import java.util.Arrays;
+
+// Feature shape compiled once into packed offsets and states, stamped in insertion order
+public class StructureTemplate {
+
+    private final int[] offsets;
+    private final int[] states;
+    private final int minX, minY, minZ;
+    private final int maxX, maxY, maxZ;
+
+    private StructureTemplate(final int[] offsets, final int[] states) {
+        this.offsets = offsets;
+        this.states = states;
+        int minX = 0, minY = 0, minZ = 0, maxX = 0, maxY = 0, maxZ = 0;
+        for (final int offset : offsets) {
+            minX = Math.min(minX, unpackX(offset));
+            minY = Math.min(minY, unpackY(offset));
+            minZ = Math.min(minZ, unpackZ(offset));
+            maxX = Math.max(maxX, unpackX(offset));
+            maxY = Math.max(maxY, unpackY(offset));
+            maxZ = Math.max(maxZ, unpackZ(offset));
+        }
+        this.minX = minX;
+        this.minY = minY;
+        this.minZ = minZ;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.maxZ = maxZ;
+    }
+
+    public int size() {
+        return offsets.length;
+    }
+
+    public int getOffset(final int index) {
+        return offsets[index];
+    }
+
+    public int getState(final int index) {
+        return states[index];
+    }
+
+    public int getMinX() {
+        return minX;
+    }
+
+    public int getMinY() {
+        return minY;
+    }
+
+    public int getMinZ() {
+        return minZ;
+    }
+
+    public int getMaxX() {
+        return maxX;
+    }
+
+    public int getMaxY() {
+        return maxY;
+    }
+
+    public int getMaxZ() {
+        return maxZ;
+    }
+
+    // Offsets are signed bytes per axis: x in bits 16-23, y in 8-15, z in 0-7
+    public static int unpackX(final int offset) {
+        return (byte) (offset >> 16);
+    }
+
+    public static int unpackY(final int offset) {
+        return (byte) (offset >> 8);
+    }
+
+    public static int unpackZ(final int offset) {
+        return (byte) offset;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int[] offsets = new int[64];
+        private int[] states = new int[64];
+        private int size;
+
+        public Builder add(final int dx, final int dy, final int dz, final int blockStateId) {
+            if (size == offsets.length) {
+                offsets = Arrays.copyOf(offsets, size * 2);
+                states = Arrays.copyOf(states, size * 2);
+            }
+            offsets[size] = ((dx & 0xFF) << 16) | ((dy & 0xFF) << 8) | (dz & 0xFF);
+            states[size] = blockStateId;
+            size++;
+            return this;
+        }
+
+        public Builder column(final int height, final int blockStateId) {
+            for (int dy = 0; dy < height; dy++) {
+                add(0, dy, 0, blockStateId);
+            }
+            return this;
+        }
+
+        public Builder sphere(final int centerY, final int radius, final int blockStateId) {
+            final int radiusSquared = radius * radius;
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    for (int dy = -radius; dy <= radius; dy++) {
+                        if (dx * dx + dz * dz + dy * dy <= radiusSquared) {
+                            add(dx, centerY + dy, dz, blockStateId);
+                        }
+                    }
+                }
+            }
+            return this;
+        }
+
+        public StructureTemplate build() {
+            return new StructureTemplate(Arrays.copyOf(offsets, size), Arrays.copyOf(states, size));
+        }
+    }
+}
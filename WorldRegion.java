@@ -0,0 +1,115 @@
+package com.example.worldgen; // Replace with your desired package
+
+import net.minestom.server.instance.Chunk;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Objects;
+
+// 3x3 chunk window handed to features; writes outside it, or into finished chunks, are clipped
+public class WorldRegion {
+
+    public static final int MAX_HEIGHT = ProtoChunk.SECTION_COUNT * Chunk.CHUNK_SECTION_SIZE;
+
+    private final int centerChunkX;
+    private final int centerChunkZ;
+    private final ProtoChunk[] chunks;
+
+    public WorldRegion(final int centerChunkX, final int centerChunkZ, final ProtoChunk[] chunks) {
+        this.centerChunkX = centerChunkX;
+        this.centerChunkZ = centerChunkZ;
+        this.chunks = chunks;
+    }
+
+    public int getCenterChunkX() {
+        return centerChunkX;
+    }
+
+    public int getCenterChunkZ() {
+        return centerChunkZ;
+    }
+
+    // First non-placeholder section of a chunk in this region, 0 when unknown
+    public int getFirstGeneratedSection(final int chunkX, final int chunkZ) {
+        final int dx = chunkX - centerChunkX + 1;
+        final int dz = chunkZ - centerChunkZ + 1;
+        if (dx < 0 || dx > 2 || dz < 0 || dz > 2 || chunks[dx * 3 + dz] == null) return 0;
+        return chunks[dx * 3 + dz].getFirstGeneratedSection();
+    }
+
+    public int getBlock(final int x, final int y, final int z) {
+        final short[] blocks = getBlocks(x, y, z);
+        if (blocks == null) return 0;
+        return blocks[SectionBufferPool.index(x & 0xF, y & 0xF, z & 0xF)] & 0xFFFF;
+    }
+
+    public void setBlock(final int x, final int y, final int z, final int blockStateId) {
+        final short[] blocks = getBlocks(x, y, z);
+        if (blocks != null) {
+            blocks[SectionBufferPool.index(x & 0xF, y & 0xF, z & 0xF)] = (short) blockStateId;
+        }
+    }
+
+    public void stamp(final StructureTemplate template, final int originX, final int originY, final int originZ) {
+        final int regionMinX = (centerChunkX - 1) * Chunk.CHUNK_SIZE_X;
+        final int regionMinZ = (centerChunkZ - 1) * Chunk.CHUNK_SIZE_Z;
+        final int regionMaxX = regionMinX + 3 * Chunk.CHUNK_SIZE_X - 1;
+        final int regionMaxZ = regionMinZ + 3 * Chunk.CHUNK_SIZE_Z - 1;
+        final boolean contained = originX + template.getMinX() >= regionMinX && originX + template.getMaxX() <= regionMaxX
+                && originZ + template.getMinZ() >= regionMinZ && originZ + template.getMaxZ() <= regionMaxZ
+                && originY + template.getMinY() >= 0 && originY + template.getMaxY() < MAX_HEIGHT;
+
+        for (int i = 0; i < template.size(); i++) {
+            final int offset = template.getOffset(i);
+            final int x = originX + StructureTemplate.unpackX(offset);
+            final int y = originY + StructureTemplate.unpackY(offset);
+            final int z = originZ + StructureTemplate.unpackZ(offset);
+            // Fully contained templates skip the per-block bounds checks
+            final short[] blocks = contained ? getBlocksUnchecked(x, y, z) : getBlocks(x, y, z);
+            if (blocks != null) {
+                blocks[SectionBufferPool.index(x & 0xF, y & 0xF, z & 0xF)] = (short) template.getState(i);
+            }
+        }
+    }
+
+    public int getHighestBlockY(final int x, final int z) {
+        for (int y = MAX_HEIGHT - 1; y >= 0; y--) {
+            if (getBlock(x, y, z) != 0) return y;
+        }
+        return -1;
+    }
+
+    // Locks are taken in a global key order so overlapping regions on other threads cannot deadlock
+    public void lock() {
+        for (final ProtoChunk chunk : lockOrder()) {
+            chunk.getWriteLock().lock();
+        }
+    }
+
+    public void unlock() {
+        for (final ProtoChunk chunk : lockOrder()) {
+            chunk.getWriteLock().unlock();
+        }
+    }
+
+    private ProtoChunk[] lockOrder() {
+        return Arrays.stream(chunks)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparingInt(ProtoChunk::getChunkX).thenComparingInt(ProtoChunk::getChunkZ))
+                .toArray(ProtoChunk[]::new);
+    }
+
+    private short[] getBlocks(final int x, final int y, final int z) {
+        if (y < 0 || y >= MAX_HEIGHT) return null;
+        final int dx = (x >> 4) - centerChunkX + 1;
+        final int dz = (z >> 4) - centerChunkZ + 1;
+        if (dx < 0 || dx > 2 || dz < 0 || dz > 2) return null;
+        final ProtoChunk chunk = chunks[dx * 3 + dz];
+        return chunk == null ? null : chunk.getBlocks(y >> 4);
+    }
+
+    private short[] getBlocksUnchecked(final int x, final int y, final int z) {
+        final ProtoChunk chunk = chunks[((x >> 4) - centerChunkX + 1) * 3 + (z >> 4) - centerChunkZ + 1];
+        return chunk == null ? null : chunk.getBlocks(y >> 4);
+    }
+}